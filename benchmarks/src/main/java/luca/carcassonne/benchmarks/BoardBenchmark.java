@@ -0,0 +1,126 @@
+package luca.carcassonne.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import luca.carcassonne.Board;
+import luca.carcassonne.FeatureEngine;
+import luca.carcassonne.RandomGames;
+import luca.carcassonne.mcts.Move;
+import luca.carcassonne.player.Player;
+
+/**
+ * Measures the board updates of a single move: placing the tile, placing the
+ * meeple and scoring the features the move closed.
+ *
+ * Each invocation applies a move and takes it back with {@code undoMove}, so
+ * the board is the same for every invocation and needs no copy. Two moves are
+ * measured from each position:
+ * <ul>
+ * <li>a quiet move, with no meeple and closing no feature, which only places
+ * the tile;</li>
+ * <li>a scoring move, closing a feature that holds a meeple, which also
+ * scores the feature and returns its meeples. It places a meeple too, unless
+ * the player has none left, as is common late in the game.</li>
+ * </ul>
+ * If the drawn tile has no such moves, random moves are played until a tile
+ * that has both is drawn, so the position may be a few moves later than
+ * {@code movesPlayed}.
+ *
+ * @author Luca Brown
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+    @Param({ "5", "35", "65" })
+    public int movesPlayed;
+
+    private luca.carcassonne.mcts.State position;
+    private Board board;
+    private ArrayList<Player> players;
+    private Move quietMove;
+    private Move scoringMove;
+
+    @Setup(Level.Trial)
+    public void setUpPosition() {
+        Random random = new Random(0);
+
+        position = RandomGames.newState(FeatureEngine.UNION_FIND, 0, movesPlayed);
+        board = position.getBoard();
+        players = position.getPlayers();
+
+        while (!findMoves()) {
+            // Plays the drawn tile and draws the next one
+            RandomGames.playRandomMove(position, random);
+
+            if (position.getCurrentTile() == null) {
+                throw new IllegalStateException("No position with a quiet and a scoring move after "
+                        + movesPlayed + " moves.");
+            }
+        }
+    }
+
+    @Benchmark
+    public Board applyAndUndoQuietMove() {
+        board.applyMove(quietMove, players);
+        board.undoMove();
+
+        return board;
+    }
+
+    @Benchmark
+    public Board applyAndUndoScoringMove() {
+        board.applyMove(scoringMove, players);
+        board.undoMove();
+
+        return board;
+    }
+
+    // Looks for a quiet and a scoring move of the drawn tile, preferring a scoring move with a meeple
+    private boolean findMoves() {
+        quietMove = null;
+        scoringMove = null;
+
+        for (Move move : position.getPossibleMoves()) {
+            int scoreBefore = getTotalScore();
+
+            board.applyMove(move, players);
+
+            boolean scored = getTotalScore() > scoreBefore;
+
+            board.undoMove();
+
+            if (!scored) {
+                if (move.getFeatureIndex() == -1 && quietMove == null) {
+                    quietMove = move;
+                }
+            } else if (scoringMove == null || scoringMove.getFeatureIndex() == -1 && move.getFeatureIndex() != -1) {
+                scoringMove = move;
+            }
+        }
+
+        return quietMove != null && scoringMove != null;
+    }
+
+    private int getTotalScore() {
+        return players.stream().mapToInt(Player::getScore).sum();
+    }
+}
@@ -0,0 +1,60 @@
+package luca.carcassonne.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import luca.carcassonne.RandomGames;
+import luca.carcassonne.RandomManager;
+import luca.carcassonne.mcts.MonteCarloTreeSearch;
+import luca.carcassonne.mcts.Move;
+
+/**
+ * Measures a whole single-threaded search for a move, as a
+ * {@code MonteCarloAgent} would run it.
+ *
+ * Every invocation starts a new tree, so nothing is reused between them.
+ *
+ * @author Luca Brown
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+    @Param({ "5", "35", "65" })
+    public int movesPlayed;
+
+    @Param({ "100" })
+    public int iterations;
+
+    private luca.carcassonne.mcts.State position;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        position = RandomGames.newState(movesPlayed);
+        RandomManager.setSeed(0);
+    }
+
+    @Benchmark
+    public Move findNextMove() {
+        MonteCarloTreeSearch mcts = new MonteCarloTreeSearch(iterations, 0.5, position.getBoard(),
+                position.getCurrentPlayer(), position.getCurrentTile(), position.getPlayers(),
+                position.getAvailableTiles());
+
+        return mcts.findNextMove();
+    }
+}
@@ -0,0 +1,119 @@
+package luca.carcassonne.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Stack;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+import luca.carcassonne.Board;
+import luca.carcassonne.CloneManager;
+import luca.carcassonne.RandomGames;
+import luca.carcassonne.RandomManager;
+import luca.carcassonne.ScoreManager;
+import luca.carcassonne.Settings;
+import luca.carcassonne.mcts.State;
+import luca.carcassonne.player.Player;
+import luca.carcassonne.tile.Placement;
+import luca.carcassonne.tile.Tile;
+import luca.carcassonne.tile.feature.Feature;
+import luca.carcassonne.tile.feature.Field;
+
+/**
+ * Measures the steps of the search that work on whole states: cloning a
+ * state, expanding all of its children and playing it out at random.
+ *
+ * {@code cloningRandomPlay} is the playout the search used before the playout
+ * engine, kept as a baseline for {@code randomPlay}. Run with {@code -prof gc}
+ * to also compare the bytes allocated per playout.
+ *
+ * None of them change the position, so it's built once per trial.
+ *
+ * @author Luca Brown
+ */
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StateBenchmark {
+    @Param({ "5", "35", "65" })
+    public int movesPlayed;
+
+    private State position;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        position = RandomGames.newState(movesPlayed);
+        RandomManager.setSeed(0);
+    }
+
+    @Benchmark
+    public State cloneState() {
+        return CloneManager.clone(position);
+    }
+
+    @Benchmark
+    public ArrayList<State> getAllPossibleChildStates() {
+        return position.getAllPossibleChildStates();
+    }
+
+    @Benchmark
+    public int randomPlay() {
+        return position.randomPlay();
+    }
+
+    @Benchmark
+    public int cloningRandomPlay() {
+        State newState = CloneManager.clone(position);
+        Board board = newState.getBoard();
+        Stack<Tile> availableTiles = newState.getAvailableTiles();
+        ArrayList<Player> players = newState.getPlayers();
+        int currentPlayer = position.getCurrentPlayer();
+
+        availableTiles.push(newState.getCurrentTile());
+
+        while (!availableTiles.empty()) {
+            Tile tile = availableTiles.pop();
+            List<Placement> placements = board.legalPlacements(tile);
+
+            if (placements.isEmpty()) {
+                continue;
+            }
+
+            Placement placement = placements.get(Settings.getRandomInt(placements.size()));
+            tile.rotateClockwise(placement.getRotation());
+            board.placeTile(placement.getCoordinates(), tile);
+
+            Object[] features = tile.getFeatures().stream().toArray();
+            Feature feature = (Feature) features[Settings.getRandomInt(features.length)];
+
+            while (feature.getClass() == Field.class && Settings.getRandomInt(10) < 7) {
+                feature = (Feature) features[Settings.getRandomInt(features.length)];
+            }
+
+            if (Settings.getRandomInt(10) < 3) {
+                board.placeMeeple(feature, players.get(currentPlayer));
+            }
+
+            ScoreManager.scoreClosedFeatures(board, false);
+            currentPlayer = (currentPlayer + 1) % players.size();
+        }
+
+        ScoreManager.scoreOpenFeatures(board, false);
+
+        return newState.calculateScoreDifference(players, position.getCurrentPlayer());
+    }
+}
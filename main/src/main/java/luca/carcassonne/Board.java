@@ -1,6 +1,7 @@
 package luca.carcassonne;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -15,8 +16,10 @@ import luca.carcassonne.mcts.Move;
 import luca.carcassonne.player.Player;
 import luca.carcassonne.tile.CardinalPoint;
 import luca.carcassonne.tile.Coordinates;
+import luca.carcassonne.tile.Placement;
 import luca.carcassonne.tile.SideFeature;
 import luca.carcassonne.tile.Tile;
+import luca.carcassonne.tile.TileType;
 import luca.carcassonne.tile.feature.Castle;
 import luca.carcassonne.tile.feature.Feature;
 import luca.carcassonne.tile.feature.Field;
@@ -29,6 +32,11 @@ import luca.carcassonne.tile.feature.Road;
  * The class is responsible for keeping track of tile placements, feature
  * updates and past moves.
  * 
+ * Moves applied with {@code applyMove(Move, ArrayList<Player>)} are journaled
+ * and can be taken back with {@code undoMove()}, so a search can walk a single
+ * board down and back up a tree instead of cloning it. Undoing requires the
+ * {@code UNION_FIND} feature engine, since graphs can't be split again.
+ * 
  * @author Luca Brown
  */
 public class Board {
@@ -44,23 +52,32 @@ public class Board {
     private int maxX;
     private int minY;
     private int minX;
+    private FeatureEngine featureEngine;
+    private FeatureTracker featureTracker;
     private Tile startingTile;
     private ArrayList<Tile> placedTiles;
+    private TileIndex tileIndex;
     private HashSet<Tile> monasteryTiles;
     private HashSet<SimpleGraph<Feature, DefaultEdge>> openFeatures;
     private HashSet<SimpleGraph<Feature, DefaultEdge>> closedFeatures;
     private HashSet<SimpleGraph<Feature, DefaultEdge>> newlyClosedFeatures;
-    private ArrayList<Coordinates> possibleCoordinates;
+    private Frontier frontier;
     private ArrayList<Move> pastMoves;
+    private ArrayList<MoveRecord> journal;
+    // Zobrist hash of the placed tiles and meeples
+    private long hash;
 
     /**
      * Creates a new board with the given starting tile.
      * 
      * All collections are initialised and the starting tile is placed at (0, 0).
      * 
-     * @param startingTile The starting tile of the board.
+     * @param startingTile  The starting tile of the board.
+     * @param featureEngine The engine used to keep track of connected features.
      */
-    public Board(Tile startingTile) {
+    public Board(Tile startingTile, FeatureEngine featureEngine) {
+        this.featureEngine = featureEngine;
+        this.featureTracker = featureEngine == FeatureEngine.UNION_FIND ? new FeatureTracker() : null;
         this.height = 1;
         this.width = 1;
         this.startingTile = startingTile;
@@ -74,6 +91,8 @@ public class Board {
                 add(startingTile);
             }
         };
+        tileIndex = new TileIndex();
+        tileIndex.put(startingTile.getCoordinates(), startingTile);
         monasteryTiles = new HashSet<>() {
             {
                 if (startingTile.getFeatures().stream().anyMatch(feature -> feature.getClass() == Monastery.class)) {
@@ -81,23 +100,30 @@ public class Board {
                 }
             }
         };
-        possibleCoordinates = new ArrayList<>() {
-            {
-                startingTile.getAdjacentCoordinates().forEach(coordinate -> {
-                    add(coordinate);
-                });
-            }
-        };
+        frontier = new Frontier();
+        extendFrontier(startingTile);
         this.openFeatures = new HashSet<>();
         for (Feature feature : startingTile.getFeatures()) {
+            feature.setBelongingTile(startingTile);
+
+            if (featureTracker != null) {
+                featureTracker.add(feature);
+                continue;
+            }
+
             SimpleGraph<Feature, DefaultEdge> graph = new SimpleGraph<>(DefaultEdge.class);
             graph.addVertex(feature);
             openFeatures.add(graph);
-            feature.setBelongingTile(startingTile);
         }
         this.closedFeatures = new HashSet<>();
         this.newlyClosedFeatures = new HashSet<>();
         this.pastMoves = new ArrayList<>();
+        this.journal = new ArrayList<>();
+        this.hash = tileKey(startingTile);
+    }
+
+    public Board(Tile startingTile) {
+        this(startingTile, FeatureEngine.GRAPH);
     }
 
     public Board() {
@@ -113,15 +139,11 @@ public class Board {
      * @return True if the tile was placed successfully.
      */
     public boolean placeTile(Coordinates coordinates, Tile newTile) {
-        List<Tile> tilesToCheck = placedTiles.stream()
-                .filter(e -> e.getAdjacentCoordinates().contains(coordinates))
-                .collect(Collectors.toCollection(ArrayList::new));
-
-        if (tilePlacementLegal(coordinates, newTile, tilesToCheck)) {
+        if (tilePlacementLegal(coordinates, newTile)) {
             newTile.setCoordinates(coordinates);
 
             updateBoard(newTile);
-            updateFeatures(newTile, tilesToCheck);
+            updateFeatures(newTile, getAdjacentTiles(coordinates));
 
             return true;
         }
@@ -141,6 +163,10 @@ public class Board {
      */
     @SuppressWarnings("unchecked")
     public boolean placeMeeple(Feature newFeature, Player currentPlayer) {
+        if (featureTracker != null) {
+            return placeTrackedMeeple(newFeature, currentPlayer);
+        }
+
         SimpleGraph<Feature, DefaultEdge> feature = new SimpleGraph<>(DefaultEdge.class);
         HashMap<Player, Integer> players = new HashMap<>();
         HashSet<SimpleGraph<Feature, DefaultEdge>> allFeatures = (HashSet<SimpleGraph<Feature, DefaultEdge>>) openFeatures
@@ -168,10 +194,238 @@ public class Board {
 
         currentPlayer.decrementMeeples();
         newFeature.setOwner(currentPlayer);
+        hash ^= meepleKey(newFeature, currentPlayer);
 
         return true;
     }
 
+    /**
+     * Applies a move to the board: places its tile and meeple, scores the
+     * features it closes and adds it to the past moves.
+     * 
+     * If the move isn't legal the board is left untouched and false is returned.
+     * {@code GRAPH} boards can't take a tile back, so on them the meeple is
+     * checked with {@code canPlaceMeeple} before the tile is placed. Their moves
+     * are applied all the same but can't be undone.
+     * 
+     * @param move    The move to apply.
+     * @param players The players of the game, indexed by the move's player index.
+     * @return True if the move was applied.
+     */
+    public boolean applyMove(Move move, ArrayList<Player> players) {
+        MoveRecord record = new MoveRecord(players);
+        TileType type = TileType.get(move.getTileId());
+        Coordinates coordinates = move.getCoordinates();
+
+        if (featureTracker == null && move.getFeatureIndex() != -1 && !canPlaceMeeple(
+                new Placement(coordinates, move.getRotation()), type, move.getFeatureIndex(),
+                players.get(move.getPlayerIndex()))) {
+            return false;
+        }
+
+        Tile tile = type.createTile(move.getRotation());
+
+        record.frontierIndex = frontier.indexOf(coordinates);
+        record.requiredSides = frontier.getRequiredSides(coordinates);
+
+        if (!placeTile(coordinates, tile)) {
+            return false;
+        }
+
+        record.tile = tile;
+
+        if (move.getFeatureIndex() != -1) {
+            record.meepleFeature = tile.getFeatures().get(move.getFeatureIndex());
+
+            if (!placeMeeple(record.meepleFeature, players.get(move.getPlayerIndex()))) {
+                // Checked before placing the tile
+                if (featureTracker == null) {
+                    throw new IllegalStateException("Meeple could not be placed and the tile can't be taken back.");
+                }
+
+                record.meepleFeature = null;
+                revert(record);
+
+                return false;
+            }
+        }
+
+        ScoreManager.scoreClosedFeatures(this, false);
+        addNewMove(move);
+        journal.add(record);
+
+        return true;
+    }
+
+    /**
+     * Takes back the last move applied with {@code applyMove}, restoring the
+     * board and the players' scores and meeples to what they were before it.
+     */
+    public void undoMove() {
+        if (featureTracker == null) {
+            throw new IllegalStateException("Moves can only be undone with the union-find feature engine.");
+        }
+
+        if (journal.isEmpty()) {
+            throw new IllegalStateException("There is no move to undo.");
+        }
+
+        revert(journal.remove(journal.size() - 1));
+        pastMoves.remove(pastMoves.size() - 1);
+    }
+
+    public boolean canUndo() {
+        return featureTracker != null && !journal.isEmpty();
+    }
+
+    /**
+     * Places a move known to be legal, e.g. one read from a snapshot, without
+     * checking it or scoring it. The players' scores and meeples are left
+     * untouched, as the snapshot holds them already.
+     *
+     * The move can't be undone. Once all moves are loaded,
+     * {@code finishLoading()} must be called.
+     *
+     * @param move   The move to place.
+     * @param tile   The tile of the move, already rotated.
+     * @param player The player who made the move.
+     */
+    void loadMove(Move move, Tile tile, Player player) {
+        tile.setCoordinates(move.getCoordinates());
+        updateBoard(tile);
+        updateFeatures(tile, getAdjacentTiles(move.getCoordinates()));
+
+        if (move.getFeatureIndex() != -1) {
+            Feature feature = tile.getFeatures().get(move.getFeatureIndex());
+
+            feature.setOwner(player);
+            hash ^= meepleKey(feature, player);
+
+            if (featureTracker != null) {
+                featureTracker.addMeeple(feature, player);
+            }
+        }
+
+        addNewMove(move);
+    }
+
+    /**
+     * Forgets the features closed while loading moves, since they were scored
+     * before the snapshot was taken.
+     */
+    void finishLoading() {
+        newlyClosedFeatures.clear();
+
+        if (featureTracker != null) {
+            featureTracker.getNewlyClosed().clear();
+        }
+    }
+
+    // Restores everything the record's move changed.
+    private void revert(MoveRecord record) {
+        Tile tile = record.tile;
+
+        featureTracker.rollback(record.trackerMark);
+        featureTracker.getNewlyClosed().clear();
+        featureTracker.getNewlyClosed().addAll(record.newlyClosed);
+
+        placedTiles.remove(placedTiles.size() - 1);
+        tileIndex.remove(tile.getCoordinates());
+        while (frontier.size() >= record.frontierSize) {
+            frontier.remove(frontier.getSlots().get(frontier.size() - 1));
+        }
+
+        List<Coordinates> adjacentCoordinates = tile.getAdjacentCoordinates();
+
+        for (int side = 0; side < 4; side++) {
+            frontier.setRequiredSide(adjacentCoordinates.get(side), (side + 2) % 4, null);
+        }
+
+        frontier.restore(tile.getCoordinates(), record.frontierIndex, record.requiredSides);
+
+        monasteryTiles.clear();
+        monasteryTiles.addAll(record.monasteryTiles);
+
+        hash = record.hash;
+        height = record.height;
+        width = record.width;
+        maxY = record.maxY;
+        maxX = record.maxX;
+        minY = record.minY;
+        minX = record.minX;
+
+        if (record.meepleFeature != null) {
+            record.meepleFeature.setOwner(null);
+        }
+
+        for (int i = 0; i < record.players.size(); i++) {
+            record.players.get(i).setScore(record.scores[i]);
+            record.players.get(i).setAvailableMeeples(record.meeples[i]);
+        }
+    }
+
+    // Places a meeple using the feature tracker's counters instead of the graphs.
+    private boolean placeTrackedMeeple(Feature newFeature, Player currentPlayer) {
+        if (currentPlayer.getAvailableMeeples() <= 0) {
+            return false;
+        }
+
+        if (!featureTracker.canClaim(featureTracker.find(newFeature), currentPlayer)) {
+            return false;
+        }
+
+        currentPlayer.decrementMeeples();
+        newFeature.setOwner(currentPlayer);
+        featureTracker.addMeeple(newFeature, currentPlayer);
+        hash ^= meepleKey(newFeature, currentPlayer);
+
+        return true;
+    }
+
+    // Symmetric rotations of a tile share the key of the canonical one
+    private static long tileKey(Tile tile) {
+        int typeId = tile.getTypeId();
+        int rotation = typeId < 0 ? tile.getRotation() : TileType.get(typeId).getCanonicalRotation(tile.getRotation());
+
+        return Zobrist.tile(typeId, rotation, tile.getCoordinates().getX(), tile.getCoordinates().getY());
+    }
+
+    /**
+     * Returns how applying a move changes a board's hash, i.e. the hash of the
+     * board after the move XOR-ed with the hash before it.
+     *
+     * @param move   The move.
+     * @param player The player making the move.
+     * @return The change to the hash.
+     */
+    public static long getMoveHash(Move move, Player player) {
+        Tile tile = TileType.get(move.getTileId()).createTile(move.getRotation());
+        long moveHash;
+
+        tile.setCoordinates(move.getCoordinates());
+        moveHash = tileKey(tile);
+
+        if (move.getFeatureIndex() != -1) {
+            Feature feature = tile.getFeatures().get(move.getFeatureIndex());
+
+            feature.setBelongingTile(tile);
+            moveHash ^= meepleKey(feature, player);
+        }
+
+        return moveHash;
+    }
+
+    private static long meepleKey(Feature feature, Player player) {
+        Tile tile = feature.getBelongingTile();
+
+        if (tile == null || tile.getCoordinates() == null) {
+            return 0;
+        }
+
+        return Zobrist.meeple(tile.getCoordinates().getX(), tile.getCoordinates().getY(),
+                feature.getCardinalPointMask(), player.getColour().ordinal());
+    }
+
     /**
      * Updates the board's state with the new tile
      * 
@@ -179,19 +433,33 @@ public class Board {
      */
     private void updateBoard(Tile newTile) {
         placedTiles.add(newTile);
-        possibleCoordinates.remove(newTile.getCoordinates());
-
-        // For each new adjacent coordinate, add it to the list of possible coordinates
-        newTile.getAdjacentCoordinates().forEach(coordinates -> {
-            if (!possibleCoordinates.contains(coordinates)
-                    && !placedTiles.stream().anyMatch(tile -> tile.getCoordinates().equals(coordinates))) {
-                possibleCoordinates.add(coordinates);
-            }
-        });
+        tileIndex.put(newTile.getCoordinates(), newTile);
+        hash ^= tileKey(newTile);
+        frontier.remove(newTile.getCoordinates());
+        extendFrontier(newTile);
 
         updateBoardStringParameters(newTile);
     }
 
+    /**
+     * Adds the free coordinates around a tile to the frontier and sets the side
+     * features they now require to match the tile.
+     * 
+     * @param tile The tile that was placed.
+     */
+    private void extendFrontier(Tile tile) {
+        List<Coordinates> adjacentCoordinates = tile.getAdjacentCoordinates();
+
+        for (int side = 0; side < 4; side++) {
+            Coordinates coordinates = adjacentCoordinates.get(side);
+
+            if (!tileIndex.contains(coordinates)) {
+                frontier.add(coordinates);
+                frontier.setRequiredSide(coordinates, (side + 2) % 4, tile.getSideFeatures().get(side));
+            }
+        }
+    }
+
     /**
      * Updates the set of open features by connecting the features of the new tile.
      * 
@@ -203,6 +471,10 @@ public class Board {
 
         for (Feature feature : newTile.getFeatures()) {
             feature.setBelongingTile(newTile);
+
+            if (featureTracker != null) {
+                featureTracker.add(feature);
+            }
         }
 
         for (Tile tile : tilesToCheck) {
@@ -218,46 +490,15 @@ public class Board {
     /**
      * Returns true if the tile placement is legal.
      * 
-     * @param coordinates  The coordinates the tile si being placed at.
-     * @param tile         The tile that's being placed.
-     * @param tilesToCheck The adjacent tiles to the new tile.
+     * A legal placement is a frontier slot whose required side features all
+     * match the tile's, so this doesn't need to look at the adjacent tiles.
+     * 
+     * @param coordinates The coordinates the tile is being placed at.
+     * @param tile        The tile that's being placed.
      * @return True if the tile placement is legal.
      */
-    private boolean tilePlacementLegal(Coordinates coordinates, Tile tile, List<Tile> tilesToCheck) {
-        if (possibleCoordinates.contains(coordinates)) {
-            for (Tile t : tilesToCheck) {
-                int position = getRelativePosition(t, coordinates);
-
-                switch (position) {
-                    case 0:
-                        if (tile.getNorthSideFeature() != t.getSouthSideFeature()) {
-                            return false;
-                        }
-                        break;
-                    case 1:
-                        if (tile.getEastSideFeature() != t.getWestSideFeature()) {
-                            return false;
-                        }
-                        break;
-                    case 2:
-                        if (tile.getSouthSideFeature() != t.getNorthSideFeature()) {
-                            return false;
-                        }
-                        break;
-                    case 3:
-                        if (tile.getWestSideFeature() != t.getEastSideFeature()) {
-                            return false;
-                        }
-                        break;
-                    default:
-                        return false;
-                }
-            }
-
-            return true;
-        }
-
-        return false;
+    private boolean tilePlacementLegal(Coordinates coordinates, Tile tile) {
+        return frontier.accepts(coordinates, tile);
     }
 
     /**
@@ -268,11 +509,153 @@ public class Board {
      * @return True if the tile can be placed.
      */
     public boolean canPlaceJunkTile(Coordinates coordinates, Tile tile) {
-        List<Tile> tilesToCheck = placedTiles.stream()
-                .filter(e -> e.getAdjacentCoordinates().contains(coordinates))
-                .collect(Collectors.toCollection(ArrayList::new));
+        return tilePlacementLegal(coordinates, tile);
+    }
+
+    /**
+     * Checks whether a player could put a meeple on a feature of a tile if the
+     * tile was placed as given, without placing anything.
+     * 
+     * The feature would join the sets of the features it touches on the adjacent
+     * tiles, and through them the other features of the tile touching the same
+     * sets. The meeple is legal if nobody has a meeple on the resulting set or the
+     * player already has one, as in {@code placeMeeple}.
+     * 
+     * @param placement    Where and how the tile would be placed.
+     * @param type         The type of the tile.
+     * @param featureIndex The index of the feature.
+     * @param player       The player placing the meeple.
+     * @return True if the meeple could be placed.
+     */
+    public boolean canPlaceMeeple(Placement placement, TileType type, int featureIndex, Player player) {
+        if (player.getAvailableMeeples() <= 0) {
+            return false;
+        }
+
+        int nFeatures = type.getNumberOfFeatures();
+        ArrayList<HashSet<Object>> touchedSets = new ArrayList<>(nFeatures);
+        HashSet<Object> sets = new HashSet<>();
+        boolean[] joined = new boolean[nFeatures];
+        boolean grown = true;
+
+        for (int i = 0; i < nFeatures; i++) {
+            touchedSets.add(getTouchedSets(placement, type, i));
+        }
 
-        return tilePlacementLegal(coordinates, tile, tilesToCheck);
+        joined[featureIndex] = true;
+        sets.addAll(touchedSets.get(featureIndex));
+
+        // Features of the new tile touching a common set end up joined through it
+        while (grown) {
+            grown = false;
+
+            for (int i = 0; i < nFeatures; i++) {
+                if (!joined[i] && !Collections.disjoint(sets, touchedSets.get(i))) {
+                    joined[i] = true;
+                    sets.addAll(touchedSets.get(i));
+                    grown = true;
+                }
+            }
+        }
+
+        boolean claimed = false;
+
+        for (Object set : sets) {
+            HashMap<Player, Integer> players = getPlayersOnSet(set);
+
+            if (players.containsKey(player)) {
+                return true;
+            }
+
+            claimed |= !players.isEmpty();
+        }
+
+        return !claimed;
+    }
+
+    // Returns the sets of the features on adjacent tiles that a feature of the tile would touch
+    private HashSet<Object> getTouchedSets(Placement placement, TileType type, int featureIndex) {
+        HashSet<Object> touchedSets = new HashSet<>();
+        int mask = type.getCardinalPointMask(placement.getRotation(), featureIndex);
+        Class<?> featureClass = type.getFeatureClass(featureIndex);
+        int x = placement.getCoordinates().getX();
+        int y = placement.getCoordinates().getY();
+        int[][] offsets = { { 0, 1 }, { 1, 0 }, { 0, -1 }, { -1, 0 } };
+
+        for (int position = 0; position < 4; position++) {
+            Tile tile = tileIndex.get(x + offsets[position][0], y + offsets[position][1]);
+
+            if (tile == null) {
+                continue;
+            }
+
+            for (Feature feature : tile.getFeatures()) {
+                int edge = feature.getCardinalPointMask() & CardinalPoint.getEdgeMask((position + 2) % 4);
+
+                if (feature.getClass() == featureClass && (CardinalPoint.getFacing(edge) & mask) != 0) {
+                    touchedSets.add(getSet(feature));
+                }
+            }
+        }
+
+        return touchedSets;
+    }
+
+    // The root of the feature's set with the union-find engine, its graph otherwise
+    private Object getSet(Feature feature) {
+        if (featureTracker != null) {
+            return featureTracker.find(feature);
+        }
+
+        for (SimpleGraph<Feature, DefaultEdge> graph : openFeatures) {
+            if (graph.containsVertex(feature)) {
+                return graph;
+            }
+        }
+
+        for (SimpleGraph<Feature, DefaultEdge> graph : closedFeatures) {
+            if (graph.containsVertex(feature)) {
+                return graph;
+            }
+        }
+
+        return feature;
+    }
+
+    @SuppressWarnings("unchecked")
+    private HashMap<Player, Integer> getPlayersOnSet(Object set) {
+        if (set instanceof Integer) {
+            return featureTracker.getPlayersOnFeature((Integer) set);
+        }
+
+        if (set instanceof SimpleGraph) {
+            return ScoreManager.getPlayersOnFeature((SimpleGraph<Feature, DefaultEdge>) set);
+        }
+
+        return new HashMap<>();
+    }
+
+    /**
+     * Returns all the coordinates where the tile can be placed in its current
+     * rotation.
+     * 
+     * @param tile The tile to check.
+     * @return The coordinates that accept the tile.
+     */
+    public List<Coordinates> getAcceptingCoordinates(Tile tile) {
+        return frontier.getAcceptingSlots(tile);
+    }
+
+    /**
+     * Returns every legal (coordinates, rotation) pair for the tile, with the
+     * rotation relative to the tile's current one. An empty list means the tile
+     * can't be placed anywhere.
+     * 
+     * @param tile The tile to place.
+     * @return The legal placements.
+     */
+    public List<Placement> legalPlacements(Tile tile) {
+        return frontier.getPlacements(tile);
     }
 
     // Links the new open features to the existing graphs.
@@ -280,69 +663,30 @@ public class Board {
         boolean featureLinked = false;
         newlyClosedFeatures.clear();
 
+        if (featureTracker != null) {
+            featureTracker.getNewlyClosed().clear();
+        }
+
         for (Feature newFeature : newTile.getFeatures()) {
             featureLinked = false;
 
             for (Feature feature : featuresToConnect.keySet()) {
-                switch (featuresToConnect.get(feature)) {
-                    case 0:
-                        if (featuresMatch(feature, newFeature, CardinalPoint.SSW, CardinalPoint.NNW)) {
-                            addFeaturesEdge(feature, newFeature);
-                            featureLinked = true;
-                        } else if (featuresMatch(feature, newFeature, CardinalPoint.S, CardinalPoint.N)) {
-                            addFeaturesEdge(feature, newFeature);
-                            featureLinked = true;
-                        } else if (featuresMatch(feature, newFeature, CardinalPoint.SSE, CardinalPoint.NNE)) {
-                            addFeaturesEdge(feature, newFeature);
-                            featureLinked = true;
-                        }
-                        break;
-                    case 1:
-                        if (featuresMatch(feature, newFeature, CardinalPoint.WSW, CardinalPoint.ESE)) {
-                            addFeaturesEdge(feature, newFeature);
-                            featureLinked = true;
-                        } else if (featuresMatch(feature, newFeature, CardinalPoint.W, CardinalPoint.E)) {
-                            addFeaturesEdge(feature, newFeature);
-                            featureLinked = true;
-                        } else if (featuresMatch(feature, newFeature, CardinalPoint.WNW, CardinalPoint.ENE)) {
-                            addFeaturesEdge(feature, newFeature);
-                            featureLinked = true;
-                        }
-                        break;
-                    case 2:
-                        if (featuresMatch(feature, newFeature, CardinalPoint.NNE, CardinalPoint.SSE)) {
-                            addFeaturesEdge(feature, newFeature);
-                            featureLinked = true;
-                        } else if (featuresMatch(feature, newFeature, CardinalPoint.N, CardinalPoint.S)) {
-                            addFeaturesEdge(feature, newFeature);
-                            featureLinked = true;
-                        } else if (featuresMatch(feature, newFeature, CardinalPoint.NNW, CardinalPoint.SSW)) {
-                            addFeaturesEdge(feature, newFeature);
-                            featureLinked = true;
-                        }
-                        break;
-                    case 3:
-                        if (featuresMatch(feature, newFeature, CardinalPoint.ESE, CardinalPoint.WSW)) {
-                            addFeaturesEdge(feature, newFeature);
-                            featureLinked = true;
-                        } else if (featuresMatch(feature, newFeature, CardinalPoint.E, CardinalPoint.W)) {
-                            addFeaturesEdge(feature, newFeature);
-                            featureLinked = true;
-                        } else if (featuresMatch(feature, newFeature, CardinalPoint.ENE, CardinalPoint.WNW)) {
-                            addFeaturesEdge(feature, newFeature);
-                            featureLinked = true;
-                        }
-                        break;
+                if (featuresMatch(feature, newFeature, featuresToConnect.get(feature))) {
+                    addFeaturesEdge(feature, newFeature);
+                    featureLinked = true;
                 }
             }
 
             if (!featureLinked) {
-                SimpleGraph<Feature, DefaultEdge> newGraph = new SimpleGraph<>(DefaultEdge.class);
-
                 if (newFeature instanceof Monastery) {
                     monasteryTiles.add(newTile);
                 }
 
+                if (featureTracker != null) {
+                    continue;
+                }
+
+                SimpleGraph<Feature, DefaultEdge> newGraph = new SimpleGraph<>(DefaultEdge.class);
                 newGraph.addVertex(newFeature);
                 openFeatures.add(newGraph);
 
@@ -360,9 +704,20 @@ public class Board {
      * @param newFeature The new feature that was added to the graph.
      */
     private void checkIfFeatureIsComplete(Feature newFeature) {
+        if (featureTracker != null) {
+            int root = featureTracker.find(newFeature);
+
+            if (!featureTracker.isClosed(root) && featureTracker.getOpenSides(root) == 0) {
+                featureTracker.close(root);
+            }
+
+            return;
+        }
+
         for (SimpleGraph<Feature, DefaultEdge> graph : openFeatures) {
             if (graph.containsVertex(newFeature)) {
-                int totalCardinalPoints = graph.vertexSet().stream().mapToInt(f -> f.getCardinalPoints().size()).sum();
+                int totalCardinalPoints = graph.vertexSet().stream()
+                        .mapToInt(f -> Integer.bitCount(f.getCardinalPointMask())).sum();
                 int totalEdges = graph.edgeSet().size();
 
                 if (totalEdges != 0 && totalCardinalPoints % totalEdges == 0
@@ -393,6 +748,12 @@ public class Board {
                     monastery = it.next();
                 }
 
+                if (featureTracker != null) {
+                    featureTracker.close(featureTracker.find(monastery));
+                    tilesToDelete.add(monasteryTile);
+                    continue;
+                }
+
                 for (SimpleGraph<Feature, DefaultEdge> openGraph : openFeatures) {
                     if (openGraph.containsVertex(monastery)) {
 
@@ -411,22 +772,21 @@ public class Board {
     }
 
     /**
-     * Checks if two features match given their cardinal points.
+     * Checks if two features of the same kind touch across the edge between
+     * their tiles, e.g. the SSW point of a tile to the north meets the NNW point
+     * of the new tile.
      * 
-     * @param feature                 The feature that is already in the graph.
-     * @param newFeature              The new feature that is being added to the
-     *                                graph.
-     * @param featureCardinalPoint    The cardinal point of the feature that is
-     *                                already in the graph.
-     * @param newFeatureCardinalPoint The cardinal point of the new feature that is
-     *                                being added to the graph.
+     * @param feature    The feature that is already on the board.
+     * @param newFeature The new feature that is being placed.
+     * @param position   The position of the feature's tile relative to the new
+     *                   tile (0 = north, 1 = east, 2 = south, 3 = west).
      * @return True if the features match, false otherwise.
      */
-    private boolean featuresMatch(Feature feature, Feature newFeature, CardinalPoint featureCardinalPoint,
-            CardinalPoint newFeatureCardinalPoint) {
+    private boolean featuresMatch(Feature feature, Feature newFeature, int position) {
+        int edge = feature.getCardinalPointMask() & CardinalPoint.getEdgeMask((position + 2) % 4);
+
         return feature.getClass() == newFeature.getClass()
-                && feature.getCardinalPoints().contains(featureCardinalPoint)
-                && newFeature.getCardinalPoints().contains(newFeatureCardinalPoint);
+                && (CardinalPoint.getFacing(edge) & newFeature.getCardinalPointMask()) != 0;
     }
 
     /**
@@ -436,6 +796,11 @@ public class Board {
      * @param newFeature The new feature that is being added to the graph.
      */
     private void addFeaturesEdge(Feature feature, Feature newFeature) {
+        if (featureTracker != null) {
+            featureTracker.union(feature, newFeature);
+            return;
+        }
+
         SimpleGraph<Feature, DefaultEdge> belongingGraph = null;
         boolean foundBelongingGraph = false;
         for (SimpleGraph<Feature, DefaultEdge> graph : openFeatures) {
@@ -461,6 +826,34 @@ public class Board {
         }
     }
 
+    /**
+     * Returns the placed tiles directly north, east, south and west of the given
+     * coordinates.
+     * 
+     * @param coordinates The coordinates to check.
+     * @return The adjacent tiles, at most four.
+     */
+    private List<Tile> getAdjacentTiles(Coordinates coordinates) {
+        List<Tile> adjacentTiles = new ArrayList<>(4);
+        int x = coordinates.getX();
+        int y = coordinates.getY();
+
+        addIfPlaced(adjacentTiles, x, y + 1);
+        addIfPlaced(adjacentTiles, x + 1, y);
+        addIfPlaced(adjacentTiles, x, y - 1);
+        addIfPlaced(adjacentTiles, x - 1, y);
+
+        return adjacentTiles;
+    }
+
+    private void addIfPlaced(List<Tile> tiles, int x, int y) {
+        Tile tile = tileIndex.get(x, y);
+
+        if (tile != null) {
+            tiles.add(tile);
+        }
+    }
+
     /**
      * Returns a number between 0 and 3 that represents the clockwise position of a
      * tile relative to the given coordinates
@@ -495,12 +888,10 @@ public class Board {
      * @return The tile that contains the feature.
      */
     public Tile getTileFromFeature(Feature feature) {
-        for (Tile tile : placedTiles) {
-            for (Feature f : tile.getFeatures()) {
-                if (f.equals(feature)) {
-                    return tile;
-                }
-            }
+        Tile tile = feature.getBelongingTile();
+
+        if (tile != null && tile.getCoordinates() != null && tileIndex.get(tile.getCoordinates()) == tile) {
+            return tile;
         }
 
         return null;
@@ -515,29 +906,30 @@ public class Board {
      */
     public int getSurroundingTiles(Tile tile) {
         int nSurroundingTiles = 0;
-        HashSet<Coordinates> surroundingCoordinates = new HashSet<>() {
-            {
-                add(new Coordinates(tile.getCoordinates().getX() + 1, tile.getCoordinates().getY()));
-                add(new Coordinates(tile.getCoordinates().getX() - 1, tile.getCoordinates().getY()));
-                add(new Coordinates(tile.getCoordinates().getX(), tile.getCoordinates().getY() + 1));
-                add(new Coordinates(tile.getCoordinates().getX(), tile.getCoordinates().getY() - 1));
-                add(new Coordinates(tile.getCoordinates().getX() + 1, tile.getCoordinates().getY() + 1));
-                add(new Coordinates(tile.getCoordinates().getX() - 1, tile.getCoordinates().getY() - 1));
-                add(new Coordinates(tile.getCoordinates().getX() + 1, tile.getCoordinates().getY() - 1));
-                add(new Coordinates(tile.getCoordinates().getX() - 1, tile.getCoordinates().getY() + 1));
-
-            }
-        };
+        int x = tile.getCoordinates().getX();
+        int y = tile.getCoordinates().getY();
 
-        for (Coordinates c : surroundingCoordinates) {
-            if (getTileFromCoordinates(c) != null) {
-                nSurroundingTiles++;
+        for (int i = x - 1; i <= x + 1; i++) {
+            for (int j = y - 1; j <= y + 1; j++) {
+                if ((i != x || j != y) && tileIndex.contains(i, j)) {
+                    nSurroundingTiles++;
+                }
             }
         }
 
         return nSurroundingTiles;
     }
 
+    /**
+     * Returns the Zobrist hash of the board, which depends only on which tiles
+     * and meeples are where, not on the order they were placed in.
+     *
+     * @return The hash.
+     */
+    public long getHash() {
+        return hash;
+    }
+
     public ArrayList<Move> getPastMoves() {
         return pastMoves;
     }
@@ -555,11 +947,15 @@ public class Board {
     }
 
     public Tile getTileFromCoordinates(Coordinates coordinates) {
-        return placedTiles.stream().filter(tile -> tile.getCoordinates().equals(coordinates)).findFirst().orElse(null);
+        return tileIndex.get(coordinates);
+    }
+
+    public List<Coordinates> getPossibleCoordinates() {
+        return frontier.getSlots();
     }
 
-    public ArrayList<Coordinates> getPossibleCoordinates() {
-        return possibleCoordinates;
+    public Frontier getFrontier() {
+        return frontier;
     }
 
     public int getPlacedTilesSize() {
@@ -630,6 +1026,62 @@ public class Board {
         return openFeatures;
     }
 
+    public FeatureEngine getFeatureEngine() {
+        return featureEngine;
+    }
+
+    public FeatureTracker getFeatureTracker() {
+        return featureTracker;
+    }
+
+    /**
+     * What a move changed on the board, kept so that it can be undone.
+     * 
+     * Everything but the tile is captured before the move is applied.
+     */
+    private class MoveRecord {
+        private Tile tile;
+        private Feature meepleFeature;
+        private int frontierIndex;
+        private SideFeature[] requiredSides;
+        private int frontierSize;
+        private int trackerMark;
+        private ArrayList<Integer> newlyClosed;
+        private ArrayList<Tile> monasteryTiles;
+        private long hash;
+        private int height;
+        private int width;
+        private int maxY;
+        private int maxX;
+        private int minY;
+        private int minX;
+        private ArrayList<Player> players;
+        private int[] scores;
+        private int[] meeples;
+
+        private MoveRecord(ArrayList<Player> players) {
+            this.frontierSize = frontier.size();
+            this.trackerMark = featureTracker == null ? 0 : featureTracker.getMark();
+            this.newlyClosed = featureTracker == null ? null : new ArrayList<>(featureTracker.getNewlyClosed());
+            this.monasteryTiles = new ArrayList<>(Board.this.monasteryTiles);
+            this.hash = Board.this.hash;
+            this.height = Board.this.height;
+            this.width = Board.this.width;
+            this.maxY = Board.this.maxY;
+            this.maxX = Board.this.maxX;
+            this.minY = Board.this.minY;
+            this.minX = Board.this.minX;
+            this.players = players;
+            this.scores = new int[players.size()];
+            this.meeples = new int[players.size()];
+
+            for (int i = 0; i < players.size(); i++) {
+                scores[i] = players.get(i).getScore();
+                meeples[i] = players.get(i).getAvailableMeeples();
+            }
+        }
+    }
+
     // * * * * * * *
     // * PRINTING METHODS *
     // * * * * * * *
@@ -656,17 +1108,13 @@ public class Board {
             }
         }
 
-        List<Coordinates> coordinates = placedTiles.stream()
-                .map(t -> t.getCoordinates())
-                .collect(Collectors.toCollection(ArrayList::new));
-
         System.out.println();
         for (int i = maxY; i >= minY; i--) {
             for (int j = minX; j <= maxX; j++) {
                 Coordinates c = new Coordinates(j, i);
                 if (j == 0 && i == 0) {
                     System.out.print(defaultColour + "O " + ANSI_RESET);
-                } else if (coordinates.contains(c)) {
+                } else if (tileIndex.contains(c)) {
                     if (SideFeature != null && getTileFromCoordinates(c).getSideFeatures().contains(SideFeature)) {
                         System.out.print(highlightColour + "X " + ANSI_RESET);
                     } else {
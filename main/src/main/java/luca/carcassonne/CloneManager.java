@@ -1,8 +1,6 @@
 package luca.carcassonne;
 
 import java.util.ArrayList;
-import java.util.Stack;
-import java.util.stream.Collectors;
 
 import luca.carcassonne.mcts.Move;
 import luca.carcassonne.mcts.State;
@@ -13,6 +11,7 @@ import luca.carcassonne.player.ProgressiveHistoryAgent;
 import luca.carcassonne.player.RandomAgent;
 import luca.carcassonne.tile.Coordinates;
 import luca.carcassonne.tile.Tile;
+import luca.carcassonne.tile.TileType;
 
 /**
  * - Magnificent aren't they?
@@ -23,78 +22,36 @@ import luca.carcassonne.tile.Tile;
  * 
  * For the {@code clone(Board, ArrayList<Player>)} method, the board is cloned
  * by
- * replaying all past moves on the new board.
+ * replaying all past moves on the new board. States are cloned through their
+ * {@code StateSnapshot} instead.
  * 
  * @author Luca Brown
  */
 public class CloneManager {
+    /**
+     * Clones a state through its binary snapshot, which builds the new board
+     * without replaying the moves.
+     * 
+     * @param state The state to clone.
+     * @return The clone, with plain players.
+     */
     public static State clone(State state) {
-        Board board = state.getBoard();
-        ArrayList<Player> players = state.getPlayers();
-        Stack<Tile> availableTiles = state.getAvailableTiles();
-        Tile currentTile = state.getCurrentTile();
-        int currentPlayer = state.getCurrentPlayer();
-        int originalPlayer = state.getOriginalPlayer();
-        int visitCount = state.getVisitCount();
-        int finalScoreDifference = state.getFinalScoreDifference();
-
-        State newState = new State();
-        ArrayList<Player> newPlayers = (ArrayList<Player>) players.stream().map(p -> clone(p))
-                .collect(Collectors.toCollection(ArrayList::new));
-        Stack<Tile> newAvailableTiles = (Stack<Tile>) availableTiles.stream().map(t -> clone(t))
-                .collect(Collectors.toCollection(Stack::new));
-        Tile newCurrentTile = clone(currentTile);
-        Board newBoard = clone(board, newPlayers);
-
-        newState.setBoard(newBoard);
-        newState.setPlayers(newPlayers);
-        newState.setAvailableTiles(newAvailableTiles);
-        newState.setCurrentTile(newCurrentTile);
-        newState.setCurrentPlayer(currentPlayer);
-        newState.setOriginalPlayer(originalPlayer);
-        newState.setVisitCount(visitCount);
-        newState.setFinalScoreDifference(finalScoreDifference);
-
-        return newState;
+        return StateSnapshot.copy(state);
     }
 
     public static Board clone(Board oldBoard, ArrayList<Player> newPlayers) {
-        Board newBoard = new Board(CloneManager.clone(oldBoard.getStartingTile()));
+        Board newBoard = new Board(CloneManager.clone(oldBoard.getStartingTile()), oldBoard.getFeatureEngine());
         for (Move move : oldBoard.getPastMoves()) {
-            Move newMove = clone(move);
-            Tile tileToPlace = Settings.getTileFromId(newMove.getTileId());
-            Coordinates coordinates = newMove.getCoordinates();
-            int rotation = newMove.getRotation();
-            int featureIndex = newMove.getFeatureIndex();
-            int playerIndex = newMove.getPlayerIndex();
-
-            tileToPlace.rotateClockwise(rotation);
-
-            boolean placed = newBoard.placeTile(coordinates, tileToPlace);
-
-            if (placed == false) {
-                throw new RuntimeException("Error cloning Board: tile could not be placed.");
-            }
-
-            if (featureIndex != -1) {
-                Player newPlayer = newPlayers.get(playerIndex);
-                boolean meeplePlaced = newBoard
-                        .placeMeeple(tileToPlace.getFeatures().get(featureIndex), newPlayer);
-
-                if (!meeplePlaced) {
-                    throw new RuntimeException("Error cloning Board: meeple could not be placed.");
-                }
+            if (!newBoard.applyMove(clone(move), newPlayers)) {
+                throw new RuntimeException("Error cloning Board: move could not be applied.");
             }
-
-            ScoreManager.scoreClosedFeatures(newBoard, false);
-            newBoard.addNewMove(newMove);
         }
 
         return newBoard;
     }
 
     public static Tile clone(Tile tile) {
-        return (tile == null ? null : Settings.getTileFromId(tile.getId()));
+        return (tile == null ? null : TileType.get(tile.getTypeId()).createTile());
     }
 
     public static Coordinates clone(Coordinates coordinates) {
@@ -112,7 +69,7 @@ public class CloneManager {
 
     public static ProgressiveHistoryAgent clone(ProgressiveHistoryAgent agent) {
         ProgressiveHistoryAgent newAgent = new ProgressiveHistoryAgent(agent.getColour(), agent.getMaxIterations(),
-                agent.getExplorationConstant(), agent.getTotalActionMap(), agent.getWinningActionMap());
+                agent.getExplorationConstant(), agent.getActionStatistics());
 
         newAgent.setScore(agent.getScore());
         newAgent.setAvailableMeeples(agent.getAvailableMeeples());
@@ -121,8 +78,22 @@ public class CloneManager {
     }
 
     public static MonteCarloAgent clone(MonteCarloAgent agent) {
-        MonteCarloAgent newAgent = new MonteCarloAgent(agent.getColour(), agent.getMaxIterations(),
-                agent.getExplorationConstant());
+        MonteCarloAgent newAgent = agent.getTranspositionTable() == null
+                ? new MonteCarloAgent(agent.getColour(), agent.getMaxIterations(), agent.getExplorationConstant())
+                : new MonteCarloAgent(agent.getColour(), agent.getMaxIterations(), agent.getExplorationConstant(),
+                        agent.getTranspositionTable().getCapacity());
+
+        newAgent.setParallelism(agent.getParallelism(), agent.getNumberOfThreads());
+        newAgent.setLazyExpansion(agent.isLazyExpansion());
+        newAgent.setProgressiveWidening(agent.getWideningConstant(), agent.getWideningExponent());
+
+        if (agent.getTimePerGame() > 0) {
+            newAgent.setTimePerGame(agent.getTimePerGame());
+            // A clone made mid-game only has the time left
+            newAgent.setRemainingGameTime(agent.getRemainingGameTime());
+        } else {
+            newAgent.setTimePerMove(agent.getTimePerMove());
+        }
 
         newAgent.setScore(agent.getScore());
         newAgent.setAvailableMeeples(agent.getAvailableMeeples());
@@ -0,0 +1,121 @@
+package luca.carcassonne;
+
+import java.util.List;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import luca.carcassonne.mcts.Move;
+import luca.carcassonne.player.Player;
+import luca.carcassonne.tile.Tile;
+import luca.carcassonne.tile.feature.Feature;
+
+/**
+ * Prints the events of a game to the console: each turn and move, the scores
+ * after each move and, at the end, the board and a summary of the game.
+ *
+ * @author Luca Brown
+ */
+public class ConsoleGameListener implements GameListener {
+    public static final String ANSI_RESET = "\u001B[0m";
+    public static final String ANSI_GREEN = "\u001B[32m";
+    public static final String ANSI_RED = "\u001B[31m";
+
+    @Override
+    public void turnStarted(Game game, Player player, Tile tile, int tilesLeft) {
+        System.out.println(player.getColour() + "'s turn");
+        System.out.println("Available tiles: " + (tilesLeft + 1));
+        System.out.println("Performing " + player.getClass().getSimpleName() + " move");
+        System.out.println("Current tile: " + tile.getId());
+    }
+
+    @Override
+    public void tileDiscarded(Game game, Player player, Tile tile) {
+        System.out.println("- - Tile not placed");
+    }
+
+    @Override
+    public void movePlayed(Game game, Player player, Move move, long timeForMove) {
+        System.out.println("Move: " + move + " performed in " + timeForMove + "ms");
+        printScores(game.getPlayers());
+    }
+
+    @Override
+    public boolean wantsScores() {
+        return true;
+    }
+
+    @Override
+    public void featureScored(List<Player> owners, int score, Feature feature, int size, Tile tile) {
+        System.out.println("Scored " + score + " points for " + owners.get(0).getColour() + " for a " + size
+                + " tile " + feature.getClass().getSimpleName() + " ( " + tile + " )");
+    }
+
+    @Override
+    public void finalScoringStarted(Game game) {
+        System.out.println("Scoring open features");
+    }
+
+    @Override
+    public void gameEnded(Game game) {
+        game.getBoard().printBoard();
+        printScores(game.getPlayers());
+
+        printSuccessfulTiles(game);
+        printFailedTiles(game);
+        printTimeElapsed(game);
+
+        if (ThreadManager.pool != null) {
+            int remainingTasks = ((ThreadPoolExecutor) ThreadManager.pool).getQueue().size();
+            System.out.println("\n- - - - Remaining tasks: " + remainingTasks + "\n");
+        }
+    }
+
+    /**
+     * Prints the scores of all players.
+     *
+     * @param players The players.
+     */
+    private void printScores(List<Player> players) {
+        for (Player player : players) {
+            System.out.println(player.getColour() + " score: " + player.getScore() + " (" + player.getAvailableMeeples()
+                    + " meeples left)");
+        }
+    }
+
+    /**
+     * Prints how many tiles were placed successfully.
+     *
+     * @param game The game.
+     */
+    private void printSuccessfulTiles(Game game) {
+        System.out.println(
+                "\nTried to place " + ANSI_GREEN + (game.getBoard().getPlacedTilesSize() - 1) + ANSI_RESET + " tiles "
+                        + ANSI_GREEN + game.getTriedPlacements()
+                        + ANSI_RESET + " times.");
+    }
+
+    /**
+     * Prints how many tiles were not placed successfully.
+     *
+     * @param game The game.
+     */
+    private void printFailedTiles(Game game) {
+        if (game.getFailedTiles() == 1) {
+            System.out.println("Failed to place " + ANSI_RED + game.getFailedTiles() + ANSI_RESET + " tile.");
+
+        } else {
+            System.out.println("Failed to place " + ANSI_RED + game.getFailedTiles() + ANSI_RESET + " tiles.");
+
+        }
+    }
+
+    /**
+     * Prints the time elapsed since the start of the game.
+     *
+     * @param game The game.
+     */
+    private void printTimeElapsed(Game game) {
+        long finishTime = System.currentTimeMillis();
+        long timeElapsed = (finishTime - game.getStartTime());
+        System.out.println("Time taken: " + ANSI_GREEN + timeElapsed / 1000.0 + ANSI_RESET + "s");
+    }
+}
@@ -0,0 +1,15 @@
+package luca.carcassonne;
+
+/**
+ * The engines a {@code Board} can use to keep track of connected features.
+ *
+ * {@code GRAPH} keeps every feature in a JGraphT graph, while
+ * {@code UNION_FIND} uses a {@code FeatureTracker}. Both engines score the same
+ * way, so they can be swapped to compare results.
+ *
+ * @author Luca Brown
+ */
+public enum FeatureEngine {
+    GRAPH,
+    UNION_FIND;
+}
@@ -0,0 +1,444 @@
+package luca.carcassonne;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+import luca.carcassonne.player.Player;
+import luca.carcassonne.tile.CardinalPoint;
+import luca.carcassonne.tile.Tile;
+import luca.carcassonne.tile.feature.Castle;
+import luca.carcassonne.tile.feature.Feature;
+
+/**
+ * A disjoint-set structure that keeps track of which features are connected.
+ *
+ * Every placed feature gets a dense id. Each set is represented by its root,
+ * which holds counters for the whole set: the number of sides that are still
+ * open, the number of shields and the number of meeples of each player. This
+ * makes linking two features and checking whether a feature is closed cheap,
+ * instead of searching and copying graphs.
+ *
+ * The members of a set are also kept in a circular list so that they can be
+ * walked when a feature is scored.
+ *
+ * Every change is written to a journal, so the tracker can be rolled back to
+ * an earlier mark when a move is undone.
+ *
+ * @author Luca Brown
+ */
+public class FeatureTracker {
+    private static final int INITIAL_CAPACITY = 64;
+    // Journal operations, each one is stored as three ints: operation, a, b.
+    private static final int ADD = 0;
+    private static final int UNION = 1;
+    private static final int LINK = 2;
+    private static final int CLOSE = 3;
+    private static final int MEEPLE = 4;
+
+    private Feature[] features;
+    private int[] parent;
+    private int[] size;
+    private int[] next;
+    private int[] openSides;
+    private int[] shields;
+    private int[] meeples;
+    private boolean[] closed;
+    private int count;
+    // The players that have placed a meeple, each one is given a seat.
+    private ArrayList<Player> seats;
+    private int[][] seatMeeples;
+    private ArrayList<Integer> newlyClosed;
+    private int[] journal;
+    private int journalSize;
+
+    public FeatureTracker() {
+        features = new Feature[INITIAL_CAPACITY];
+        parent = new int[INITIAL_CAPACITY];
+        size = new int[INITIAL_CAPACITY];
+        next = new int[INITIAL_CAPACITY];
+        openSides = new int[INITIAL_CAPACITY];
+        shields = new int[INITIAL_CAPACITY];
+        meeples = new int[INITIAL_CAPACITY];
+        closed = new boolean[INITIAL_CAPACITY];
+        count = 0;
+        seats = new ArrayList<>();
+        seatMeeples = new int[0][];
+        newlyClosed = new ArrayList<>();
+        journal = new int[INITIAL_CAPACITY * 3];
+        journalSize = 0;
+    }
+
+    /**
+     * Adds a feature as a new set of its own.
+     *
+     * @param feature The feature to add.
+     * @return The id given to the feature.
+     */
+    public int add(Feature feature) {
+        if (count == parent.length) {
+            grow();
+        }
+
+        int id = count++;
+        int sides = Integer.bitCount(feature.getCardinalPointMask() & CardinalPoint.SIDE_MASK);
+
+        features[id] = feature;
+        parent[id] = id;
+        size[id] = 1;
+        next[id] = id;
+        openSides[id] = sides;
+        shields[id] = feature instanceof Castle && ((Castle) feature).hasShield() ? 1 : 0;
+        meeples[id] = 0;
+        closed[id] = false;
+        feature.setTrackerId(id);
+        record(ADD, id, 0);
+
+        return id;
+    }
+
+    /**
+     * Returns the root of the set that contains the given id.
+     *
+     * Paths are not compressed, so that a union can be undone by resetting a
+     * single parent. Union by size keeps the trees shallow.
+     *
+     * @param id The id of a feature.
+     * @return The root of its set.
+     */
+    public int find(int id) {
+        while (parent[id] != id) {
+            id = parent[id];
+        }
+
+        return id;
+    }
+
+    /**
+     * Returns the root of the set that contains the given feature, or -1 if the
+     * feature is not tracked.
+     *
+     * @param feature The feature to look for.
+     * @return The root of its set.
+     */
+    public int find(Feature feature) {
+        int id = feature.getTrackerId();
+
+        if (id < 0 || id >= count || features[id] != feature) {
+            return -1;
+        }
+
+        return find(id);
+    }
+
+    /**
+     * Links two features that touch across a tile edge.
+     *
+     * Each link closes one side on both features, so the open sides of the
+     * resulting set drop by two even when both features already share a set.
+     *
+     * @param feature    The feature that is already on the board.
+     * @param newFeature The feature of the tile being placed.
+     * @return The root of the resulting set.
+     */
+    public int union(Feature feature, Feature newFeature) {
+        int root = find(feature);
+        int newRoot = find(newFeature);
+
+        if (root != newRoot) {
+            if (size[root] < size[newRoot]) {
+                int temp = root;
+                root = newRoot;
+                newRoot = temp;
+            }
+
+            parent[newRoot] = root;
+            size[root] += size[newRoot];
+            openSides[root] += openSides[newRoot];
+            shields[root] += shields[newRoot];
+            meeples[root] += meeples[newRoot];
+
+            for (int[] counts : seatMeeples) {
+                counts[root] += counts[newRoot];
+            }
+
+            // Splicing two circular lists joins them
+            int temp = next[root];
+            next[root] = next[newRoot];
+            next[newRoot] = temp;
+            record(UNION, root, newRoot);
+        }
+
+        openSides[root] -= 2;
+        record(LINK, root, 0);
+
+        return root;
+    }
+
+    /**
+     * Records a meeple placed by the given player on a feature.
+     *
+     * @param feature The feature holding the meeple.
+     * @param player  The player who placed it.
+     */
+    public void addMeeple(Feature feature, Player player) {
+        int root = find(feature);
+
+        if (root < 0) {
+            return;
+        }
+
+        int seat = getSeat(player);
+
+        meeples[root]++;
+        seatMeeples[seat][root]++;
+        record(MEEPLE, root, seat);
+    }
+
+    /**
+     * Returns a map of players and the number of meeples they have on the set.
+     *
+     * @param root The root of the set.
+     * @return A map of players and the number of meeples they have on the set.
+     */
+    public HashMap<Player, Integer> getPlayersOnFeature(int root) {
+        HashMap<Player, Integer> players = new HashMap<>();
+
+        if (root < 0 || meeples[root] == 0) {
+            return players;
+        }
+
+        for (int seat = 0; seat < seats.size(); seat++) {
+            if (seatMeeples[seat][root] > 0) {
+                players.put(seats.get(seat), seatMeeples[seat][root]);
+            }
+        }
+
+        return players;
+    }
+
+    /**
+     * Returns true if the given player can claim the set: either nobody has a
+     * meeple on it or the player already has one.
+     *
+     * @param root   The root of the set.
+     * @param player The player claiming the set.
+     * @return True if the player can claim the set.
+     */
+    public boolean canClaim(int root, Player player) {
+        if (root < 0 || meeples[root] == 0) {
+            return true;
+        }
+
+        int seat = seats.indexOf(player);
+
+        return seat >= 0 && seatMeeples[seat][root] > 0;
+    }
+
+    /**
+     * Returns the number of distinct tiles the set spans.
+     *
+     * A set can hold several features of the same tile (e.g. a road loop through
+     * an intersection), so this walks the members instead of keeping a counter.
+     *
+     * @param root The root of the set.
+     * @return The number of tiles.
+     */
+    public int getTileCount(int root) {
+        if (size[root] == 1) {
+            return 1;
+        }
+
+        HashSet<Tile> tiles = new HashSet<>();
+        int id = root;
+
+        do {
+            tiles.add(features[id].getBelongingTile());
+            id = next[id];
+        } while (id != root);
+
+        return tiles.size();
+    }
+
+    /**
+     * Returns all the features in the set.
+     *
+     * @param root The root of the set.
+     * @return The features in the set.
+     */
+    public List<Feature> getFeatures(int root) {
+        List<Feature> members = new ArrayList<>(size[root]);
+        int id = root;
+
+        do {
+            members.add(features[id]);
+            id = next[id];
+        } while (id != root);
+
+        return members;
+    }
+
+    /**
+     * Marks a set as closed.
+     *
+     * @param root The root of the set.
+     */
+    public void close(int root) {
+        closed[root] = true;
+        newlyClosed.add(root);
+        record(CLOSE, root, 0);
+    }
+
+    /**
+     * Returns a mark of the tracker's current state, to be passed to
+     * {@code rollback(int)}.
+     * 
+     * @return The current size of the journal.
+     */
+    public int getMark() {
+        return journalSize;
+    }
+
+    /**
+     * Undoes every change made since the given mark, most recent first.
+     * 
+     * Newly closed sets are not touched, the caller is responsible for them.
+     * 
+     * @param mark A mark returned by {@code getMark()}.
+     */
+    public void rollback(int mark) {
+        while (journalSize > mark) {
+            journalSize -= 3;
+            int a = journal[journalSize + 1];
+            int b = journal[journalSize + 2];
+
+            switch (journal[journalSize]) {
+                case ADD:
+                    features[a].setTrackerId(-1);
+                    features[a] = null;
+                    count--;
+                    break;
+                case UNION:
+                    parent[b] = b;
+                    size[a] -= size[b];
+                    openSides[a] -= openSides[b];
+                    shields[a] -= shields[b];
+                    meeples[a] -= meeples[b];
+
+                    for (int[] counts : seatMeeples) {
+                        counts[a] -= counts[b];
+                    }
+
+                    // Splicing the same two nodes again splits the lists
+                    int temp = next[a];
+                    next[a] = next[b];
+                    next[b] = temp;
+                    break;
+                case LINK:
+                    openSides[a] += 2;
+                    break;
+                case CLOSE:
+                    closed[a] = false;
+                    break;
+                case MEEPLE:
+                    meeples[a]--;
+                    seatMeeples[b][a]--;
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown journal operation");
+            }
+        }
+    }
+
+    /**
+     * Returns the roots of all the sets that are still open.
+     *
+     * @return The roots of the open sets.
+     */
+    public List<Integer> getOpenRoots() {
+        List<Integer> roots = new ArrayList<>();
+
+        for (int id = 0; id < count; id++) {
+            if (parent[id] == id && !closed[id]) {
+                roots.add(id);
+            }
+        }
+
+        return roots;
+    }
+
+    public boolean isClosed(int root) {
+        return closed[root];
+    }
+
+    public int getOpenSides(int root) {
+        return openSides[root];
+    }
+
+    public int getShields(int root) {
+        return shields[root];
+    }
+
+    public int getMeeples(int root) {
+        return meeples[root];
+    }
+
+    public int getSize(int root) {
+        return size[root];
+    }
+
+    public Feature getFeature(int id) {
+        return features[id];
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public ArrayList<Integer> getNewlyClosed() {
+        return newlyClosed;
+    }
+
+    private void record(int operation, int a, int b) {
+        if (journalSize + 3 > journal.length) {
+            journal = Arrays.copyOf(journal, journal.length * 2);
+        }
+
+        journal[journalSize++] = operation;
+        journal[journalSize++] = a;
+        journal[journalSize++] = b;
+    }
+
+    // Returns the seat of a player, giving it a new one on its first meeple.
+    private int getSeat(Player player) {
+        int seat = seats.indexOf(player);
+
+        if (seat < 0) {
+            seat = seats.size();
+            seats.add(player);
+            seatMeeples = Arrays.copyOf(seatMeeples, seat + 1);
+            seatMeeples[seat] = new int[parent.length];
+        }
+
+        return seat;
+    }
+
+    private void grow() {
+        int capacity = parent.length * 2;
+
+        features = Arrays.copyOf(features, capacity);
+        parent = Arrays.copyOf(parent, capacity);
+        size = Arrays.copyOf(size, capacity);
+        next = Arrays.copyOf(next, capacity);
+        openSides = Arrays.copyOf(openSides, capacity);
+        shields = Arrays.copyOf(shields, capacity);
+        meeples = Arrays.copyOf(meeples, capacity);
+        closed = Arrays.copyOf(closed, capacity);
+
+        for (int seat = 0; seat < seatMeeples.length; seat++) {
+            seatMeeples[seat] = Arrays.copyOf(seatMeeples[seat], capacity);
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package luca.carcassonne;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import luca.carcassonne.tile.Coordinates;
+import luca.carcassonne.tile.Placement;
+import luca.carcassonne.tile.SideFeature;
+import luca.carcassonne.tile.Tile;
+
+/**
+ * The free coordinates next to at least one placed tile, i.e. where the next
+ * tile could go.
+ *
+ * Each slot keeps the side features that its placed neighbours require, in
+ * N, E, S, W order ({@code null} where there is no neighbour). This way a tile
+ * can be checked against a slot without looking at the board.
+ *
+ * The required sides are also packed into an edge signature (two bits per
+ * side) with a mask of the sides that have a neighbour, so checking a tile
+ * against a slot is a single comparison. See {@code getSignature}.
+ *
+ * Slots are stored in a list with a {@code SlotIndex} from their packed
+ * coordinates to their position, so that adding, removing and looking them up
+ * is constant time and allocates nothing. Everything else about a slot is kept
+ * in arrays indexed like the list. Removing a slot moves the last one in its
+ * place, which {@code restore} can undo exactly.
+ *
+ * @author Luca Brown
+ */
+public class Frontier {
+    private static final int INITIAL_CAPACITY = 32;
+
+    private ArrayList<Coordinates> slots;
+    private SlotIndex indexes;
+    // Indexed like slots
+    private SideFeature[][] requiredSides;
+    private int[] signatures;
+    private int[] masks;
+
+    public Frontier() {
+        slots = new ArrayList<>();
+        indexes = new SlotIndex();
+        requiredSides = new SideFeature[INITIAL_CAPACITY][];
+        signatures = new int[INITIAL_CAPACITY];
+        masks = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Returns the edge signature of a tile turned clockwise the given number of
+     * times, without rotating it. Each side takes two bits holding the ordinal
+     * of its side feature, in N, E, S, W order.
+     *
+     * @param tile     The tile.
+     * @param rotation The number of clockwise rotations.
+     * @return The edge signature.
+     */
+    public static int getSignature(Tile tile, int rotation) {
+        ArrayList<SideFeature> sideFeatures = tile.getSideFeatures();
+        int signature = 0;
+
+        for (int side = 0; side < 4; side++) {
+            signature |= sideFeatures.get((side - rotation + 4) % 4).ordinal() << (2 * side);
+        }
+
+        return signature;
+    }
+
+    /**
+     * Adds a slot if it isn't already in the frontier.
+     *
+     * @param coordinates The coordinates of the slot.
+     * @return True if the slot was added.
+     */
+    public boolean add(Coordinates coordinates) {
+        if (indexes.get(coordinates) != -1) {
+            return false;
+        }
+
+        ensureCapacity();
+        indexes.put(coordinates, slots.size());
+        requiredSides[slots.size()] = new SideFeature[4];
+        signatures[slots.size()] = 0;
+        masks[slots.size()] = 0;
+        slots.add(coordinates);
+
+        return true;
+    }
+
+    /**
+     * Removes a slot from the frontier.
+     *
+     * @param coordinates The coordinates of the slot.
+     * @return The index the slot had, or -1 if it wasn't in the frontier.
+     */
+    public int remove(Coordinates coordinates) {
+        int index = indexes.remove(coordinates);
+
+        if (index == -1) {
+            return -1;
+        }
+
+        Coordinates last = slots.remove(slots.size() - 1);
+
+        if (index < slots.size()) {
+            slots.set(index, last);
+            indexes.put(last, index);
+            requiredSides[index] = requiredSides[slots.size()];
+            signatures[index] = signatures[slots.size()];
+            masks[index] = masks[slots.size()];
+        }
+
+        requiredSides[slots.size()] = null;
+
+        return index;
+    }
+
+    /**
+     * Puts back a slot removed by {@code remove}, at the index it had. Used to
+     * undo a removal, once every slot added since has been removed.
+     *
+     * @param coordinates The coordinates of the slot.
+     * @param index       The index returned by {@code remove}.
+     * @param sides       The side features the slot required.
+     */
+    public void restore(Coordinates coordinates, int index, SideFeature[] sides) {
+        ensureCapacity();
+
+        if (index < slots.size()) {
+            Coordinates moved = slots.get(index);
+
+            indexes.put(moved, slots.size());
+            requiredSides[slots.size()] = requiredSides[index];
+            signatures[slots.size()] = signatures[index];
+            masks[slots.size()] = masks[index];
+            slots.add(moved);
+            slots.set(index, coordinates);
+        } else {
+            slots.add(coordinates);
+        }
+
+        indexes.put(coordinates, index);
+        requiredSides[index] = sides;
+        encode(index, sides);
+    }
+
+    /**
+     * Sets the side feature required on one side of a slot.
+     *
+     * @param coordinates The coordinates of the slot.
+     * @param side        The side (0 = north, 1 = east, 2 = south, 3 = west).
+     * @param sideFeature The side feature required, or null for none.
+     */
+    public void setRequiredSide(Coordinates coordinates, int side, SideFeature sideFeature) {
+        int index = indexes.get(coordinates);
+
+        if (index != -1) {
+            requiredSides[index][side] = sideFeature;
+            encode(index, requiredSides[index]);
+        }
+    }
+
+    /**
+     * Returns true if the tile, in its current rotation, can be placed at the
+     * given coordinates.
+     *
+     * @param coordinates The coordinates to check.
+     * @param tile        The tile to check.
+     * @return True if the tile fits the slot.
+     */
+    public boolean accepts(Coordinates coordinates, Tile tile) {
+        int index = indexes.get(coordinates);
+
+        return index != -1 && accepts(index, getSignature(tile, 0));
+    }
+
+    /**
+     * Returns all the slots that accept the tile in its current rotation.
+     *
+     * @param tile The tile to check.
+     * @return The coordinates of the slots.
+     */
+    public List<Coordinates> getAcceptingSlots(Tile tile) {
+        List<Coordinates> acceptingSlots = new ArrayList<>();
+        int signature = getSignature(tile, 0);
+
+        for (int i = 0; i < slots.size(); i++) {
+            if (accepts(i, signature)) {
+                acceptingSlots.add(slots.get(i));
+            }
+        }
+
+        return acceptingSlots;
+    }
+
+    /**
+     * Returns every slot and rotation (relative to the tile's current one) in
+     * which the tile can be placed, in slot order.
+     *
+     * @param tile The tile to place.
+     * @return The legal placements.
+     */
+    public List<Placement> getPlacements(Tile tile) {
+        List<Placement> placements = new ArrayList<>();
+        int[] tileSignatures = new int[4];
+
+        for (int rotation = 0; rotation < 4; rotation++) {
+            tileSignatures[rotation] = getSignature(tile, rotation);
+        }
+
+        for (int i = 0; i < slots.size(); i++) {
+            for (int rotation = 0; rotation < 4; rotation++) {
+                if (accepts(i, tileSignatures[rotation])) {
+                    placements.add(new Placement(slots.get(i), rotation));
+                }
+            }
+        }
+
+        return placements;
+    }
+
+    public int indexOf(Coordinates coordinates) {
+        return indexes.get(coordinates);
+    }
+
+    public boolean contains(Coordinates coordinates) {
+        return indexes.get(coordinates) != -1;
+    }
+
+    public SideFeature[] getRequiredSides(Coordinates coordinates) {
+        int index = indexes.get(coordinates);
+
+        return index == -1 ? null : requiredSides[index];
+    }
+
+    public List<Coordinates> getSlots() {
+        return Collections.unmodifiableList(slots);
+    }
+
+    public int size() {
+        return slots.size();
+    }
+
+    // Makes room for one more slot in the arrays indexed like slots.
+    private void ensureCapacity() {
+        if (slots.size() == signatures.length) {
+            requiredSides = Arrays.copyOf(requiredSides, requiredSides.length * 2);
+            signatures = Arrays.copyOf(signatures, signatures.length * 2);
+            masks = Arrays.copyOf(masks, masks.length * 2);
+        }
+    }
+
+    // A tile fits a slot if it matches the slot on every side with a neighbour.
+    private boolean accepts(int index, int signature) {
+        return ((signatures[index] ^ signature) & masks[index]) == 0;
+    }
+
+    // Packs a slot's required sides into its signature and mask.
+    private void encode(int index, SideFeature[] sides) {
+        int signature = 0;
+        int mask = 0;
+
+        for (int side = 0; side < 4; side++) {
+            if (sides[side] != null) {
+                signature |= sides[side].ordinal() << (2 * side);
+                mask |= 3 << (2 * side);
+            }
+        }
+
+        signatures[index] = signature;
+        masks[index] = mask;
+    }
+}
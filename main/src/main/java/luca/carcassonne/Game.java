@@ -1,21 +1,11 @@
 package luca.carcassonne;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Stack;
-import java.util.concurrent.ThreadPoolExecutor;
-
-import org.javatuples.Pair;
 
+import luca.carcassonne.mcts.ActionStatistics;
 import luca.carcassonne.mcts.Move;
 import luca.carcassonne.player.Colour;
 import luca.carcassonne.player.GreedyAgent;
@@ -25,6 +15,7 @@ import luca.carcassonne.player.ProgressiveHistoryAgent;
 import luca.carcassonne.player.RandomAgent;
 import luca.carcassonne.tile.Coordinates;
 import luca.carcassonne.tile.Tile;
+import luca.carcassonne.tile.feature.Feature;
 
 /**
  * The main class of the game. It is responsible for managing the board, the
@@ -37,13 +28,12 @@ import luca.carcassonne.tile.Tile;
  * @author Luca Brown
  */
 public class Game extends Thread {
-    public static final String ANSI_RESET = "\u001B[0m";
-    public static final String ANSI_GREEN = "\u001B[32m";
-    public static final String ANSI_RED = "\u001B[31m";
+    public static final String TOTAL_MOVES_FILE = "luca/carcassonne/totalMoves.csv";
+    public static final String WINNING_MOVES_FILE = "luca/carcassonne/winningMoves.csv";
+    private static ActionStatistics sharedActionStatistics;
 
     private int failedTiles = 0;
     private int triedPlacements = 0;
-    private int progressBarStep = 1;
     private long startTime;
 
     private Board board;
@@ -51,25 +41,54 @@ public class Game extends Thread {
     private Stack<Tile> availableTiles;
     private Tile currentTile;
     private int currentPlayer = 0;
-    private HashMap<Coordinates, HashSet<Integer>> checkedCombinations;
-    private HashSet<Integer> checkedRotations;
+    // Seeds the random stream of the thread running the game
+    private final long seed;
+    // Without listeners the game is headless and prints nothing
+    private final ArrayList<GameListener> listeners = new ArrayList<>();
+    // The listeners that want scores, the only ones the scoring reports to
+    private final ArrayList<GameListener> scoreListeners = new ArrayList<>();
+    // Passes the scores on to every score listener
+    private final GameListener scoreListener = new GameListener() {
+        @Override
+        public void featureScored(List<Player> owners, int score, Feature feature, int size, Tile tile) {
+            for (GameListener listener : scoreListeners) {
+                listener.featureScored(owners, score, feature, size, tile);
+            }
+        }
+    };
 
     /**
-     * Creates a new game with the given board.
-     * 
-     * The players are added manually to the {@code players} list.
+     * Creates a new game with the given board and a seed drawn from the current
+     * thread's random stream.
      * 
      * @param board
      */
     public Game(Board board) {
-        HashMap<Pair<String, Integer>, Integer> totalActionMap = readFromData(
-                "luca/carcassonne/totalMoves.csv");
-        HashMap<Pair<String, Integer>, Integer> winningActionMap = readFromData(
-                "luca/carcassonne/winningMoves.csv");
+        this(board, RandomManager.get().nextLong());
+    }
 
-        System.out.println("Total actions read: " + totalActionMap.size());
-        System.out.println("Winning actions read: " + winningActionMap.size());
+    /**
+     * Creates a new game with the given board. Games with the same seed and
+     * players are played the same way.
+     * 
+     * The players are added manually to the {@code players} list.
+     * 
+     * @param board
+     * @param seed  The seed of the game's random stream.
+     */
+    public Game(Board board, long seed) {
+        this(board, seed, getSharedActionStatistics());
+    }
 
+    /**
+     * Creates a new game whose {@code ProgressiveHistoryAgent}s use the given
+     * action statistics, e.g. one store shared by all the games of a run.
+     * 
+     * @param board
+     * @param seed             The seed of the game's random stream.
+     * @param actionStatistics The statistics of the progressive history agents.
+     */
+    public Game(Board board, long seed, ActionStatistics actionStatistics) {
         this.board = board;
         this.players = new ArrayList<>() {
             {
@@ -78,14 +97,14 @@ public class Game extends Thread {
                 // add(new RandomAgent(Colour.GREEN));
                 // add(new GreedyAgent(Colour.WHITE));
                 // add(new MonteCarloAgent(Colour.BLACK, 500, 0.5));
-                // add(new ProgressiveHistoryAgent(Colour.BLUE, 500, 0.5, totalActionMap,
-                // winningActionMap));
+                // add(new ProgressiveHistoryAgent(Colour.BLUE, 500, 0.5, actionStatistics));
                 // add(new GreedyAgent(Colour.RED));
                 add(new RandomAgent(Colour.BLACK));
                 add(new RandomAgent(Colour.BLUE));
             }
         };
         this.availableTiles = Settings.getStandardDeck();
+        this.seed = seed;
         currentTile = new Tile(0, 0);
     }
 
@@ -108,7 +127,9 @@ public class Game extends Thread {
         for (int i = 0; i < times; i++) {
             System.out.print(i);
 
-            Game game = new Game(new Board(Settings.getSingleCastleWithStraightRoad()));
+            Game game = new Game(new Board(Settings.getSingleCastleWithStraightRoad(), Settings.FEATURE_ENGINE),
+                    RandomManager.getGameSeed(i));
+            game.addListener(new ConsoleGameListener());
             game.run();
             whiteTotalScore += game.players.get(0).getScore();
             redTotalScore += game.players.get(1).getScore();
@@ -140,233 +161,141 @@ public class Game extends Thread {
      * One a {@code Move} is received it is played by updating the board and
      * keeping track of player score.
      * 
-     * At the end of the game, the information is stored in the
-     * {@code ThreadManager} class.
+     * Every step is reported to the game's listeners, which is how the
+     * {@code ThreadManager} class gathers the results of its games.
      */
     @Override
     public void run() {
-        Collections.shuffle(availableTiles, Settings.getRandom());
+        RandomManager.setSeed(seed);
+        RandomManager.shuffle(availableTiles);
         startTime = System.currentTimeMillis();
-        progressBarStep = availableTiles.size() / 100 + 1;
         triedPlacements = 0;
 
+        for (GameListener listener : listeners) {
+            listener.gameStarted(this);
+        }
+
         // Each loop iteration corresponds to one turn
         while (!availableTiles.empty()) {
             long timeForMove = System.currentTimeMillis();
-            System.out.println(players.get(currentPlayer).getColour() + "'s turn");
-            System.out.println("Available tiles: " + availableTiles.size());
-            System.out.println("Performing " + players.get(currentPlayer).getClass().getSimpleName() + " move");
-
-            boolean isPlaced = false;
-            boolean playerPlacedTile = true;
             boolean meeplePlaced = false;
             Coordinates randomCoordinates = null;
             int randomRotation = -1;
 
-            checkedCombinations = new HashMap<>();
-            checkedRotations = new HashSet<Integer>();
-
             currentTile = availableTiles.pop();
-            System.out.println("Current tile: " + currentTile.getId());
+
+            for (GameListener listener : listeners) {
+                listener.turnStarted(this, players.get(currentPlayer), currentTile, availableTiles.size());
+            }
+
+            // A tile that fits nowhere is discarded before asking for a move
+            if (board.legalPlacements(currentTile).isEmpty()) {
+                failedTiles++;
+                discardTile();
+                continue;
+            }
 
             Move move = players.get(currentPlayer).getNextMove(board, currentPlayer, currentTile, players,
                     availableTiles);
 
             if (move == null) {
-                System.out.println("- - Tile not placed");
-                isPlaced = true;
-                playerPlacedTile = false;
+                discardTile();
                 continue;
             }
 
-            while (!isPlaced) {
-                triedPlacements++;
-
-                // Get coordinates from mouse click
-                randomCoordinates = move.getCoordinates();
+            triedPlacements++;
+            randomCoordinates = move.getCoordinates();
+            randomRotation = move.getRotation();
+            currentTile.rotateClockwise(randomRotation);
 
-                // Get rotation from mouse click
-                randomRotation = move.getRotation();
-                currentTile.rotateClockwise(randomRotation);
-
-                // Check if the tile can go in the given coordinates with the given rotation
-                isPlaced = board.placeTile(randomCoordinates, currentTile);
-
-                if (!isPlaced) {
-                    // If tile is not placed, keep a record of checked combination
-                    if (updateCheckedCombinations(randomCoordinates, randomRotation)) {
-                        System.out.println("- - Tile not placed");
-                        isPlaced = true;
-                        playerPlacedTile = false;
-                    }
-                }
+            if (!board.placeTile(randomCoordinates, currentTile)) {
+                throw new IllegalStateException(players.get(currentPlayer).getClass().getSimpleName()
+                        + " returned an illegal move: " + move);
             }
 
-            if (playerPlacedTile) {
-
-                if (move.getFeatureIndex() != -1) {
-                    meeplePlaced = board.placeMeeple(currentTile.getFeatures().get(move.getFeatureIndex()),
-                            players.get(currentPlayer));
-                } else {
-                    meeplePlaced = false;
-                }
-
-                currentTile.setOwner(players.get(currentPlayer)); // to delete
-
-                if (meeplePlaced) {
-                    Move newMove = new Move(randomCoordinates, currentTile.getId(), randomRotation, currentPlayer,
-                            currentTile.getFeatures().indexOf(currentTile.getFeatures().get(move.getFeatureIndex())));
-                    board.addNewMove(newMove);
-                } else {
-                    Move newMove = new Move(randomCoordinates, currentTile.getId(), randomRotation, currentPlayer);
-                    board.addNewMove(newMove);
-                }
+            if (move.getFeatureIndex() != -1) {
+                meeplePlaced = board.placeMeeple(currentTile.getFeatures().get(move.getFeatureIndex()),
+                        players.get(currentPlayer));
+            } else {
+                meeplePlaced = false;
+            }
 
-                ScoreManager.scoreClosedFeatures(board, true);
-                currentPlayer = (currentPlayer + 1) % players.size();
+            currentTile.setOwner(players.get(currentPlayer)); // to delete
 
-                timeForMove = System.currentTimeMillis() - timeForMove;
-                System.out.println("Move: " + move + " performed in " + timeForMove + "ms");
+            if (meeplePlaced) {
+                Move newMove = new Move(randomCoordinates, currentTile.getId(), randomRotation, currentPlayer,
+                        currentTile.getFeatures().indexOf(currentTile.getFeatures().get(move.getFeatureIndex())));
+                board.addNewMove(newMove);
+            } else {
+                Move newMove = new Move(randomCoordinates, currentTile.getId(), randomRotation, currentPlayer);
+                board.addNewMove(newMove);
+            }
 
-                synchronized (ThreadManager.timeForMove) {
-                    int index = 71 - availableTiles.size() - 1;
-                    ThreadManager.timeForMove.set(index,
-                            ThreadManager.timeForMove.get(index) + (int) timeForMove);
-                }
+            ScoreManager.scoreClosedFeatures(board, getScoreListener());
 
-                // print score of each player
-                printScores();
-            }
-        }
-        System.out.println("Scoring open features");
-        ScoreManager.scoreOpenFeatures(board, true);
-
-        board.printBoard();
-        printScores();
-
-        printSuccessfulTiles();
-        printFailedTiles();
-        printTimeElapsed();
-
-        // Obtain a lock on the synchronized list
-        synchronized (ThreadManager.playersTotalScore) {
-            for (int i = 0; i < players.size(); i++) {
-                // Update the player's score in the synchronized list
-                ThreadManager.playersTotalScore.set(i,
-                        ThreadManager.playersTotalScore.get(i) + players.get(i).getScore());
-            }
-        }
+            timeForMove = System.currentTimeMillis() - timeForMove;
 
-        int maxValue = players.stream().max(Comparator.comparing(Player::getScore)).get().getScore();
-        ArrayList<Integer> maxPlayers = new ArrayList<Integer>();
-        for (int i = 0; i < players.size(); i++) {
-            if (players.get(i).getScore() == maxValue) {
-                maxPlayers.add(i);
+            for (GameListener listener : listeners) {
+                listener.movePlayed(this, players.get(currentPlayer), move, timeForMove);
             }
-        }
 
-        synchronized (ThreadManager.ties) {
-            if (maxPlayers.size() > 1) {
-                for (Integer i : maxPlayers) {
-                    ThreadManager.ties.set(i, ThreadManager.ties.get(i) + 1);
-                }
-            } else {
-                synchronized (ThreadManager.playersWR) {
-                    for (Integer i : maxPlayers) {
-                        ThreadManager.playersWR.set(i, ThreadManager.playersWR.get(i) + 1);
-                    }
-                }
-            }
+            currentPlayer = (currentPlayer + 1) % players.size();
         }
 
-        synchronized (ThreadManager.playersMaxScore) {
-            for (int i = 0; i < players.size(); i++) {
-                if (players.get(i).getScore() > ThreadManager.playersMaxScore.get(i)) {
-                    ThreadManager.playersMaxScore.set(i, players.get(i).getScore());
-                }
-            }
+        for (GameListener listener : listeners) {
+            listener.finalScoringStarted(this);
         }
 
-        synchronized (ThreadManager.playersMinScore) {
-            for (int i = 0; i < players.size(); i++) {
-                if (players.get(i).getScore() < ThreadManager.playersMinScore.get(i)) {
-                    ThreadManager.playersMinScore.set(i, players.get(i).getScore());
-                }
-            }
-        }
+        ScoreManager.scoreOpenFeatures(board, getScoreListener());
 
-        synchronized (ThreadManager.scoreDelta) {
-            ThreadManager.scoreDelta.add(players.get(0).getScore() - players.get(1).getScore());
+        for (GameListener listener : listeners) {
+            listener.gameEnded(this);
         }
 
-        int remainingTasks = ((ThreadPoolExecutor) ThreadManager.pool).getQueue().size();
-        System.out.println("\n- - - - Remaining tasks: " + remainingTasks + "\n");
-
         this.interrupt();
     }
 
-    /**
-     * Keeps a record of checked combinations for a tile.
-     * 
-     * If there are no more possible placements for a tile it is remove from the
-     * game and a new one is drawn.
-     * 
-     * @param randomCoordinates
-     * @param randomRotation
-     * @return
-     */
-    private boolean updateCheckedCombinations(Coordinates randomCoordinates, Integer randomRotation) {
-        if (!checkedCombinations.containsKey(randomCoordinates)) {
-            checkedCombinations.put(randomCoordinates, new HashSet<>());
+    public void addListener(GameListener listener) {
+        listeners.add(listener);
+
+        if (listener.wantsScores()) {
+            scoreListeners.add(listener);
         }
+    }
 
-        checkedRotations = checkedCombinations.get(randomCoordinates);
-        checkedRotations.add(randomRotation);
-        checkedCombinations.put(randomCoordinates, checkedRotations);
+    public void removeListener(GameListener listener) {
+        listeners.remove(listener);
+        scoreListeners.remove(listener);
+    }
+
+    public List<GameListener> getListeners() {
+        return Collections.unmodifiableList(listeners);
+    }
 
-        if (checkedCombinations.size() == board.getPossibleCoordinates().size()
-                && checkedCombinations.get(randomCoordinates).size() == 4) {
-            failedTiles++;
-            return true;
+    // Tells the listeners that the current tile wasn't placed
+    private void discardTile() {
+        for (GameListener listener : listeners) {
+            listener.tileDiscarded(this, players.get(currentPlayer), currentTile);
         }
+    }
 
-        return false;
+    // The listener the scoring reports to, null when no listener handles scores so nothing is reported
+    private GameListener getScoreListener() {
+        return scoreListeners.isEmpty() ? null : scoreListener;
     }
 
     /**
-     * Reads data from a csv file.
-     * 
-     * Used for the {@code ProgressiveHistoryAgent}.
+     * Returns the action statistics read from the bundled csv files, read only
+     * once and shared by the games that aren't given their own.
      * 
-     * @param fileName
-     * @return
+     * @return The shared action statistics.
      */
-    public HashMap<Pair<String, Integer>, Integer> readFromData(String fileName) {
-        HashMap<Pair<String, Integer>, Integer> actionMap = new HashMap<Pair<String, Integer>, Integer>();
-
-        try (InputStream inputStream = Game.class.getClassLoader().getResourceAsStream(fileName);
-                InputStreamReader inputStreamReader = new InputStreamReader(inputStream);
-                BufferedReader br = new BufferedReader(inputStreamReader)) {
-            // BufferedReader br = new BufferedReader(new FileReader(fileName));
-
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] values = line.split(",");
-                Pair<String, Integer> action = new Pair<String, Integer>(values[0],
-                        Integer.parseInt(values[1]));
-                if (actionMap.containsKey(action)) {
-                    actionMap.put(action, actionMap.get(action) + 1);
-                } else {
-                    actionMap.put(action, 1);
-                }
-            }
-
-            br.close();
-        } catch (Exception e) {
-            e.printStackTrace();
+    public static synchronized ActionStatistics getSharedActionStatistics() {
+        if (sharedActionStatistics == null) {
+            sharedActionStatistics = ActionStatistics.readFromData(TOTAL_MOVES_FILE, WINNING_MOVES_FILE);
         }
 
-        return actionMap;
+        return sharedActionStatistics;
     }
 
     public int getNumberOfPlayers() {
@@ -377,76 +306,23 @@ public class Game extends Thread {
         return players;
     }
 
-    // * * * * * * * * * * * *
-    // * PRINTING METHODS *
-    // * * * * * * * * * * * *
-
-    /**
-     * Prints the scores of all players.
-     */
-    private void printScores() {
-        for (Player player : players) {
-            System.out.println(player.getColour() + " score: " + player.getScore() + " (" + player.getAvailableMeeples()
-                    + " meeples left)");
-        }
-    }
-
-    /**
-     * Prints the moves of the given player.
-     * 
-     * @param playerIndex
-     */
-    @SuppressWarnings("unused")
-    private void printMoves(int playerIndex) {
-        for (Move move : board.getPastMoves()) {
-            if (move.getPlayerIndex() == playerIndex) {
-                System.out.println(move.getTileId() + " " + move.getFeatureIndex());
-            }
-        }
+    public long getSeed() {
+        return seed;
     }
 
-    /**
-     * Prints how many tiles were placed successfully.
-     */
-    private void printSuccessfulTiles() {
-        System.out.println(
-                "\nTried to place " + ANSI_GREEN + (board.getPlacedTilesSize() - 1) + ANSI_RESET + " tiles "
-                        + ANSI_GREEN + triedPlacements
-                        + ANSI_RESET + " times.");
+    public Board getBoard() {
+        return board;
     }
 
-    /**
-     * Prints how many tiles were not placed successfully.
-     */
-    private void printFailedTiles() {
-        if (failedTiles == 1) {
-            System.out.println("Failed to place " + ANSI_RED + failedTiles + ANSI_RESET + " tile.");
-
-        } else {
-            System.out.println("Failed to place " + ANSI_RED + failedTiles + ANSI_RESET + " tiles.");
-
-        }
+    public int getFailedTiles() {
+        return failedTiles;
     }
 
-    /**
-     * Prints the time elapsed since the start of the game.
-     */
-    private void printTimeElapsed() {
-        long finishTime = System.currentTimeMillis();
-        long timeElapsed = (finishTime - startTime);
-        System.out.println("Time taken: " + ANSI_GREEN + timeElapsed / 1000.0 + ANSI_RESET + "s");
+    public int getTriedPlacements() {
+        return triedPlacements;
     }
 
-    /**
-     * Prints 1% of the progress bar.
-     */
-    @SuppressWarnings("unused")
-    private void printProgressBarStep() {
-        if (board.getPlacedTilesSize() == 2) {
-            System.out.print("\n%: ");
-        }
-        if (board.getPlacedTilesSize() % progressBarStep == 0) {
-            System.out.print("#");
-        }
+    public long getStartTime() {
+        return startTime;
     }
 }
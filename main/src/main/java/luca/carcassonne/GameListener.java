@@ -0,0 +1,92 @@
+package luca.carcassonne;
+
+import java.util.List;
+
+import luca.carcassonne.mcts.Move;
+import luca.carcassonne.player.Player;
+import luca.carcassonne.tile.Tile;
+import luca.carcassonne.tile.feature.Feature;
+
+/**
+ * Receives the events of a game as it's played.
+ * 
+ * A game without listeners does no formatting or I/O, which is what bulk
+ * simulations want. {@code ConsoleGameListener} prints the events to the
+ * console. Every method does nothing by default, so a listener only overrides
+ * the events it's interested in.
+ * 
+ * Features are scored many times per game, so {@code featureScored} is only
+ * called on listeners that opt in through {@code wantsScores()}.
+ * 
+ * @author Luca Brown
+ */
+public interface GameListener {
+
+    default void gameStarted(Game game) {
+    }
+
+    /**
+     * Called when a player draws a tile.
+     * 
+     * @param game      The game.
+     * @param player    The player to move.
+     * @param tile      The tile drawn.
+     * @param tilesLeft The number of tiles left after this one.
+     */
+    default void turnStarted(Game game, Player player, Tile tile, int tilesLeft) {
+    }
+
+    /**
+     * Called when the drawn tile fits nowhere or the player returns no move.
+     * 
+     * @param game   The game.
+     * @param player The player to move.
+     * @param tile   The tile drawn.
+     */
+    default void tileDiscarded(Game game, Player player, Tile tile) {
+    }
+
+    /**
+     * Called after a move is played and the features it closed are scored.
+     * 
+     * @param game        The game.
+     * @param player      The player who made the move.
+     * @param move        The move.
+     * @param timeForMove The time the player took to choose the move, in ms.
+     */
+    default void movePlayed(Game game, Player player, Move move, long timeForMove) {
+    }
+
+    /**
+     * Whether the listener is told about scored features. Listeners overriding
+     * {@code featureScored} must return true.
+     * 
+     * @return True if {@code featureScored} should be called.
+     */
+    default boolean wantsScores() {
+        return false;
+    }
+
+    /**
+     * Called when a feature is scored, if {@code wantsScores()} returns true.
+     * 
+     * @param owners  The players who get the points.
+     * @param score   The points each owner gets.
+     * @param feature A feature of the scored set.
+     * @param size    The number of features in the set.
+     * @param tile    The tile holding {@code feature}.
+     */
+    default void featureScored(List<Player> owners, int score, Feature feature, int size, Tile tile) {
+    }
+
+    /**
+     * Called when the last tile is played, before the open features are scored.
+     * 
+     * @param game The game.
+     */
+    default void finalScoringStarted(Game game) {
+    }
+
+    default void gameEnded(Game game) {
+    }
+}
@@ -0,0 +1,95 @@
+package luca.carcassonne;
+
+import java.io.BufferedInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import luca.carcassonne.mcts.ActionStatistics;
+import luca.carcassonne.mcts.State;
+
+/**
+ * The record of a finished game: its seed and its final state, which holds
+ * every move played and the final scores.
+ *
+ * Records are written by {@code GameRecordWriter} as the seed followed by the
+ * {@code StateSnapshot} of the final state. Reading one back gives a board
+ * ready to be inspected or replayed move by move.
+ *
+ * @author Luca Brown
+ */
+public class GameRecord {
+    private final long seed;
+    private final State state;
+
+    public GameRecord(long seed, State state) {
+        this.seed = seed;
+        this.state = state;
+    }
+
+    public void write(DataOutput out) throws IOException {
+        out.writeLong(seed);
+        StateSnapshot.write(state, out);
+    }
+
+    public static GameRecord read(DataInput in) throws IOException {
+        long seed = in.readLong();
+
+        return new GameRecord(seed, StateSnapshot.read(in));
+    }
+
+    /**
+     * Reads all the records of a file written by {@code GameRecordWriter}.
+     *
+     * @param file The compressed file.
+     * @return The records, in the order they were written.
+     * @throws IOException If the file can't be read.
+     */
+    public static List<GameRecord> readFile(Path file) throws IOException {
+        List<GameRecord> records = new ArrayList<>();
+
+        try (InputStream stream = Files.newInputStream(file);
+                DataInputStream in = new DataInputStream(
+                        new BufferedInputStream(new GZIPInputStream(stream)))) {
+            while (true) {
+                long seed;
+
+                try {
+                    seed = in.readLong();
+                } catch (EOFException e) {
+                    break;
+                }
+
+                records.add(new GameRecord(seed, StateSnapshot.read(in)));
+            }
+        }
+
+        return records;
+    }
+
+    /**
+     * Counts the actions of the game in the given progressive history
+     * statistics, like a game that just ended.
+     *
+     * @param actionStatistics The statistics to add the game to.
+     */
+    public void addActions(ActionStatistics actionStatistics) {
+        actionStatistics.addGame(state.getBoard().getPastMoves(), state.getPlayers());
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public State getState() {
+        return state;
+    }
+}
@@ -0,0 +1,188 @@
+package luca.carcassonne;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Stack;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+
+import luca.carcassonne.mcts.State;
+import luca.carcassonne.player.Player;
+
+/**
+ * Writes the record of every finished game to compressed files, without
+ * making the games wait for the disk.
+ *
+ * Added as a listener to the games of a run. When a game ends, its
+ * {@code GameRecord} is encoded on the game's thread and put on a queue. A
+ * single writer thread takes the records off the queue in batches and appends
+ * them to the current file, starting a new one every {@code gamesPerFile}
+ * games. The files are named {@code games-00000.bin.gz},
+ * {@code games-00001.bin.gz}, ... and can be read with
+ * {@code GameRecord.readFile(Path)}.
+ *
+ * The queue is bounded, so games only block if the writer falls that far
+ * behind. {@code close()} must be called once all games have ended, to write
+ * the records left and finish the last file.
+ *
+ * @author Luca Brown
+ */
+public class GameRecordWriter implements GameListener, AutoCloseable {
+    private static final int QUEUE_CAPACITY = 1024;
+    private static final int BATCH_SIZE = 64;
+    // Put on the queue by close() to stop the writer thread
+    private static final byte[] END = new byte[0];
+
+    private final Path directory;
+    private final int gamesPerFile;
+    private final BlockingQueue<byte[]> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Thread writer;
+
+    private OutputStream out;
+    private int files = 0;
+    private int gamesInFile = 0;
+    // The first error, which close() throws
+    private final AtomicReference<IOException> error = new AtomicReference<>();
+
+    /**
+     * Creates a writer and starts its thread.
+     *
+     * @param directory    The directory to write the files to, created if
+     *                     needed.
+     * @param gamesPerFile The number of games written to each file.
+     * @throws IOException If the directory can't be created.
+     */
+    public GameRecordWriter(Path directory, int gamesPerFile) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.gamesPerFile = gamesPerFile;
+        this.writer = new Thread(this::writeRecords, "game-record-writer");
+        writer.start();
+    }
+
+    @Override
+    public void gameEnded(Game game) {
+        add(game.getSeed(), game.getBoard(), game.getPlayers());
+    }
+
+    /**
+     * Queues the record of a finished game. If the thread is interrupted while
+     * waiting for room on the queue, the record is dropped and {@code close()}
+     * reports it.
+     *
+     * @param seed    The seed of the game.
+     * @param board   The final board.
+     * @param players The players, with their final scores.
+     */
+    public void add(long seed, Board board, List<Player> players) {
+        State state = new State(board, 0, null, new ArrayList<>(players), new Stack<>());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+
+        try {
+            new GameRecord(seed, state).write(new DataOutputStream(bytes));
+            queue.put(bytes.toByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error.compareAndSet(null, new InterruptedIOException("The record of game " + seed + " was dropped."));
+        }
+    }
+
+    /**
+     * Writes the records left, closes the last file and stops the writer
+     * thread.
+     *
+     * @throws IOException If a record couldn't be written or was dropped.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            queue.put(END);
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error.compareAndSet(null, new InterruptedIOException("Interrupted before all records were written."));
+        }
+
+        if (error.get() != null) {
+            throw error.get();
+        }
+    }
+
+    public int getFiles() {
+        return files;
+    }
+
+    // The writer thread's loop
+    private void writeRecords() {
+        List<byte[]> batch = new ArrayList<>(BATCH_SIZE);
+        boolean ended = false;
+
+        try {
+            while (!ended) {
+                batch.add(queue.take());
+                queue.drainTo(batch, BATCH_SIZE - 1);
+
+                for (byte[] record : batch) {
+                    if (record == END) {
+                        ended = true;
+                        break;
+                    }
+
+                    // After an error the queue is still emptied so no game blocks on it
+                    if (error.get() == null) {
+                        try {
+                            write(record);
+                        } catch (IOException e) {
+                            error.compareAndSet(null, e);
+                        }
+                    }
+                }
+
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error.compareAndSet(null, new InterruptedIOException("The writer was interrupted."));
+        }
+
+        try {
+            closeFile();
+        } catch (IOException e) {
+            error.compareAndSet(null, e);
+        }
+    }
+
+    private void write(byte[] record) throws IOException {
+        if (out == null) {
+            Path file = directory.resolve(String.format("games-%05d.bin.gz", files++));
+
+            out = new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(file)));
+        }
+
+        out.write(record);
+
+        if (++gamesInFile == gamesPerFile) {
+            closeFile();
+        }
+    }
+
+    private void closeFile() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+            gamesInFile = 0;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package luca.carcassonne.mcts;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.javatuples.Pair;
+
+import luca.carcassonne.Game;
+import luca.carcassonne.GameListener;
+import luca.carcassonne.player.Player;
+import luca.carcassonne.tile.TileType;
+
+/**
+ * How many times each action was played, and how many times by a winner, for
+ * the progressive history heuristic.
+ *
+ * An action is a tile type and the feature its meeple was put on (or no
+ * meeple), mapped to a dense index so the counters are two primitive arrays.
+ * One store can be shared by all the games of a run: added as a listener, it
+ * counts the moves of every game as it ends, and searches read the counters
+ * without locking while it does.
+ *
+ * @author Luca Brown
+ */
+public class ActionStatistics implements GameListener {
+    // Slot 0 of each tile type is for moves without a meeple
+    private static final int SLOTS_PER_TYPE = maxFeatures() + 1;
+
+    private final AtomicLongArray played;
+    private final AtomicLongArray won;
+    private final AtomicLong games = new AtomicLong();
+
+    public ActionStatistics() {
+        this.played = new AtomicLongArray(TileType.getNumberOfTypes() * SLOTS_PER_TYPE);
+        this.won = new AtomicLongArray(TileType.getNumberOfTypes() * SLOTS_PER_TYPE);
+    }
+
+    /**
+     * Creates a store holding the counts of the old action maps, keyed by tile
+     * name and feature index.
+     *
+     * @param totalActionMap   The number of times each action was played.
+     * @param winningActionMap The number of times each action was played by a
+     *                         winner.
+     * @return The store.
+     */
+    public static ActionStatistics fromMaps(Map<Pair<String, Integer>, Integer> totalActionMap,
+            Map<Pair<String, Integer>, Integer> winningActionMap) {
+        ActionStatistics statistics = new ActionStatistics();
+
+        totalActionMap.forEach((action, count) -> statistics.played.addAndGet(getIndex(action), count));
+        winningActionMap.forEach((action, count) -> statistics.won.addAndGet(getIndex(action), count));
+
+        return statistics;
+    }
+
+    /**
+     * Reads the counts from two csv resources with one action per line, written
+     * as the tile name and the feature index, e.g. {@code Curvy road,2}.
+     *
+     * @param totalMovesFile   The resource with every action played.
+     * @param winningMovesFile The resource with the actions played by winners.
+     * @return The store.
+     */
+    public static ActionStatistics readFromData(String totalMovesFile, String winningMovesFile) {
+        ActionStatistics statistics = new ActionStatistics();
+
+        readFromData(totalMovesFile, statistics.played);
+        readFromData(winningMovesFile, statistics.won);
+
+        return statistics;
+    }
+
+    /**
+     * Returns the index of an action.
+     *
+     * @param typeId       The id of the tile type.
+     * @param featureIndex The feature holding the meeple, -1 if none.
+     * @return The index of the action.
+     */
+    public static int getIndex(int typeId, int featureIndex) {
+        if (featureIndex < -1 || featureIndex + 1 >= SLOTS_PER_TYPE) {
+            throw new IllegalArgumentException("Invalid feature index: " + featureIndex);
+        }
+
+        return typeId * SLOTS_PER_TYPE + featureIndex + 1;
+    }
+
+    public static int getIndex(Move move) {
+        return move.getTileTypeId() * SLOTS_PER_TYPE + move.getFeatureIndex() + 1;
+    }
+
+    @Override
+    public void gameEnded(Game game) {
+        addGame(game.getBoard().getPastMoves(), game.getPlayers());
+    }
+
+    /**
+     * Counts the moves of a finished game. Every move counts as played, and the
+     * moves of the players with the highest score as won.
+     *
+     * @param moves   The moves of the game.
+     * @param players The players, with their final scores.
+     */
+    public void addGame(List<Move> moves, List<Player> players) {
+        int maxScore = players.stream().mapToInt(Player::getScore).max().orElse(0);
+
+        for (Move move : moves) {
+            int action = getIndex(move);
+
+            played.incrementAndGet(action);
+
+            if (players.get(move.getPlayerIndex()).getScore() == maxScore) {
+                won.incrementAndGet(action);
+            }
+        }
+
+        games.incrementAndGet();
+    }
+
+    public long getPlayed(int action) {
+        return played.get(action);
+    }
+
+    public long getWon(int action) {
+        return won.get(action);
+    }
+
+    /**
+     * Returns the number of games counted since the store was created, not
+     * including the ones it was loaded from.
+     *
+     * @return The number of games.
+     */
+    public long getGames() {
+        return games.get();
+    }
+
+    private static int getIndex(Pair<String, Integer> action) {
+        return getIndex(TileType.get(action.getValue0()).getId(), action.getValue1());
+    }
+
+    private static void readFromData(String fileName, AtomicLongArray counts) {
+        InputStream inputStream = ActionStatistics.class.getClassLoader().getResourceAsStream(fileName);
+
+        if (inputStream == null) {
+            throw new IllegalArgumentException("Resource not found: " + fileName);
+        }
+
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(inputStream))) {
+            String line;
+
+            while ((line = br.readLine()) != null) {
+                String[] values = line.split(",");
+
+                counts.incrementAndGet(getIndex(TileType.get(values[0]).getId(), Integer.parseInt(values[1])));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int maxFeatures() {
+        int max = 0;
+
+        for (int id = 0; id < TileType.getNumberOfTypes(); id++) {
+            max = Math.max(max, TileType.get(id).getNumberOfFeatures());
+        }
+
+        return max;
+    }
+}
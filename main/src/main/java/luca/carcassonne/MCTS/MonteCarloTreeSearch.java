@@ -2,11 +2,20 @@ package luca.carcassonne.mcts;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
 import java.util.Stack;
-
-import org.javatuples.Pair;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
 
 import luca.carcassonne.Board;
+import luca.carcassonne.CloneManager;
+import luca.carcassonne.RandomManager;
 import luca.carcassonne.player.Player;
 import luca.carcassonne.tile.Tile;
 
@@ -19,75 +28,316 @@ import luca.carcassonne.tile.Tile;
  * @author Luca Brown
  */
 public class MonteCarloTreeSearch {
+    // Runs the trees of parallel searches, its threads don't keep the JVM alive
+    private static final ExecutorService SEARCH_POOL = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "mcts-search");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private State startingState;
+    // Created by the first search, unless an earlier tree is reused
+    private Node rootNode = null;
     private int maxIterations = 0;
     private double explorationConstant = 0;
     private double progressiveHistoryConstant = 3;
+    // Optional, shares statistics between equal states
+    private TranspositionTable transpositionTable = null;
+    private SearchParallelism parallelism = SearchParallelism.NONE;
+    private int numberOfThreads = 1;
+    // 0 if the search only stops at maxIterations
+    private long timeBudget = 0;
+    // In System.nanoTime() terms, only valid while a timed search runs
+    private long deadline = 0;
+    // Whether children are created one at a time, as progressive widening allows
+    private boolean lazyExpansion = false;
+    private double wideningConstant = 1;
+    private double wideningExponent = 0.5;
 
     public MonteCarloTreeSearch(int maxIterations, double explorationConstant, Board startingBoard, int startingPlayer,
             Tile currentTile,
             ArrayList<Player> players, Stack<Tile> availableTiles) {
-        startingState = new State(startingBoard, startingPlayer, currentTile, players, availableTiles);
+        this(maxIterations, explorationConstant,
+                new State(startingBoard, startingPlayer, currentTile, players, availableTiles));
+    }
+
+    private MonteCarloTreeSearch(int maxIterations, double explorationConstant, State startingState) {
+        this.startingState = startingState;
         this.maxIterations = maxIterations;
         this.explorationConstant = explorationConstant;
     }
 
+    /**
+     * Creates a single-threaded search from the same state and with the same
+     * settings as the given one, for one tree of a root parallel search. The
+     * transposition table isn't shared and the tree starts empty.
+     * 
+     * @param search The search to copy.
+     */
+    private MonteCarloTreeSearch(MonteCarloTreeSearch search) {
+        this(search.maxIterations, search.explorationConstant, search.startingState);
+
+        this.progressiveHistoryConstant = search.progressiveHistoryConstant;
+        this.timeBudget = search.timeBudget;
+        this.deadline = search.deadline;
+        this.lazyExpansion = search.lazyExpansion;
+        this.wideningConstant = search.wideningConstant;
+        this.wideningExponent = search.wideningExponent;
+    }
+
     /**
      * Returns the best move found by Monte Carlo Tree Search.
      * 
      * @return The best move found by Monte Carlo Tree Search.
      */
     public Move findNextMove() {
-        Node rootNode = new Node(startingState);
-        int iterations = 0;
+        startClock();
 
-        while (iterations < maxIterations) {
-            iterations++;
+        if (parallelism == SearchParallelism.ROOT && numberOfThreads > 1) {
+            return findRootParallelMove();
+        }
 
-            // Selection
-            Node promisingNode = selectPromisingNode(rootNode);
+        if (parallelism == SearchParallelism.TREE && numberOfThreads > 1) {
+            return findTreeParallelMove();
+        }
 
-            // Expansion
-            if (promisingNode.getState().getCurrentTile() != null) {
-                expandNode(promisingNode);
-            }
+        Node bestNode = search().getChildWithMaxScore();
+        return bestNode.getState().getBoard().getLastMove();
+    }
 
-            // Simulation
-            Node nodeToExplore = promisingNode;
+    /**
+     * Searches one independent tree per thread, each with the whole iteration and
+     * time budget, and returns the move whose root children were visited the most
+     * across all trees.
+     * 
+     * Each tree's root is its own clone of the starting state and the trees
+     * don't use the transposition table, so they share nothing while running.
+     * Each tree also gets its own random stream split from the caller's.
+     * 
+     * @return The move with the most visits over all trees.
+     */
+    private Move findRootParallelMove() {
+        ArrayList<Future<Node>> trees = new ArrayList<>();
+        HashMap<Move, Integer> visitCounts = new HashMap<>();
 
-            if (promisingNode.hasChildren()) {
-                nodeToExplore = promisingNode.getChildWithGreedyPolicy(); // Random??
+        for (int i = 0; i < numberOfThreads; i++) {
+            SplittableRandom random = RandomManager.split();
+
+            trees.add(SEARCH_POOL.submit(() -> {
+                RandomManager.set(random);
+
+                return new MonteCarloTreeSearch(this).search();
+            }));
+        }
+
+        for (Future<Node> tree : trees) {
+            Node rootNode = await(tree);
+
+            for (Node child : rootNode.getChildren()) {
+                visitCounts.merge(child.getState().getBoard().getLastMove(), child.getState().getVisitCount(),
+                        Integer::sum);
             }
+        }
 
-            int playoutResult = simulateRandomPlayout(nodeToExplore);
+        return visitCounts.entrySet().stream().max(Map.Entry.comparingByValue()).map(Map.Entry::getKey)
+                .orElse(null);
+    }
 
-            // Backpropagation
-            backPropagation(nodeToExplore, playoutResult);
+    /**
+     * Has every thread run iterations on the same tree until {@code maxIterations}
+     * iterations were run in total or the time budget is used up. Each thread
+     * gets its own random stream split from the caller's.
+     * 
+     * @return The most visited move of the shared tree.
+     */
+    private Move findTreeParallelMove() {
+        Node rootNode = getRootNode();
+        AtomicInteger iterations = new AtomicInteger();
+        ArrayList<Future<?>> workers = new ArrayList<>();
+
+        for (int i = 0; i < numberOfThreads; i++) {
+            SplittableRandom random = RandomManager.split();
+
+            workers.add(SEARCH_POOL.submit(() -> {
+                RandomManager.set(random);
+
+                while (canContinue(iterations.getAndIncrement())) {
+                    runSharedIteration(rootNode);
+                }
+            }));
+        }
+
+        for (Future<?> worker : workers) {
+            await(worker);
         }
 
         Node bestNode = rootNode.getChildWithMaxScore();
         return bestNode.getState().getBoard().getLastMove();
     }
 
+    /**
+     * Runs one iteration on a tree shared with other threads.
+     * 
+     * Nodes get their visit as soon as they are selected rather than during
+     * backpropagation. Until the playout is back, this virtual loss lowers their
+     * UCT value, so the other threads tend to choose different paths. Only one
+     * thread expands a node, and children are published all at once.
+     * 
+     * @param rootNode The root of the shared tree.
+     */
+    private void runSharedIteration(Node rootNode) {
+        if (lazyExpansion) {
+            Node nodeToExplore = selectWithWidening(rootNode, true);
+            int playoutResult = simulateSharedPlayout(nodeToExplore);
+
+            for (Node node = nodeToExplore; node != null; node = node.getParent()) {
+                node.getState().getStatistics().updateFinalScoreDifference(playoutResult);
+            }
+
+            return;
+        }
+
+        // Selection
+        Node promisingNode = rootNode;
+        rootNode.getState().incrementVisit();
+
+        while (promisingNode.hasChildren()) {
+            promisingNode = findBestNodeWithUCT(promisingNode);
+            promisingNode.getState().incrementVisit();
+        }
+
+        // Expansion
+        if (promisingNode.getState().getCurrentTile() != null) {
+            synchronized (promisingNode) {
+                if (!promisingNode.hasChildren()) {
+                    expandNode(promisingNode);
+                }
+            }
+        }
+
+        // Simulation
+        Node nodeToExplore = promisingNode;
+
+        if (promisingNode.hasChildren()) {
+            Node child = promisingNode.getChildWithGreedyPolicy();
+
+            if (child != null) {
+                nodeToExplore = child;
+                nodeToExplore.getState().incrementVisit();
+            }
+        }
+
+        int playoutResult = simulateSharedPlayout(nodeToExplore);
+
+        // Backpropagation, the visits were already counted
+        for (Node node = nodeToExplore; node != null; node = node.getParent()) {
+            node.getState().getStatistics().updateFinalScoreDifference(playoutResult);
+        }
+    }
+
+    // Sets the deadline of a timed search
+    private void startClock() {
+        deadline = System.nanoTime() + timeBudget * 1_000_000;
+    }
+
+    /**
+     * Whether another iteration can be started. Without a time budget the search
+     * runs {@code maxIterations} iterations. With one it runs until the deadline,
+     * or until {@code maxIterations} if that is positive and comes first. The first
+     * iteration is always run, so that there is a move to return.
+     * 
+     * @param iterations The number of iterations started so far.
+     * @return True if the search can go on.
+     */
+    private boolean canContinue(int iterations) {
+        if (timeBudget <= 0) {
+            return iterations < maxIterations;
+        }
+
+        if (iterations == 0) {
+            return true;
+        }
+
+        return (maxIterations <= 0 || iterations < maxIterations) && System.nanoTime() - deadline < 0;
+    }
+
+    // Waits for a search task, rethrowing its failure
+    private static <T> T await(Future<T> task) {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while searching in parallel.", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error searching in parallel.", e.getCause());
+        }
+    }
+
+    /**
+     * Runs iterations on the tree rooted at the starting state until the
+     * iterations or the time budget are used up.
+     * 
+     * @return The root of the tree.
+     */
+    private Node search() {
+        Node rootNode = getRootNode();
+        int iterations = 0;
+
+        while (canContinue(iterations)) {
+            iterations++;
+
+            Node nodeToExplore;
+
+            if (lazyExpansion) {
+                // Selection and expansion of at most one child
+                nodeToExplore = selectWithWidening(rootNode, false);
+            } else {
+                // Selection
+                Node promisingNode = selectPromisingNode(rootNode);
+
+                // Expansion
+                if (promisingNode.getState().getCurrentTile() != null) {
+                    expandNode(promisingNode);
+                }
+
+                // Simulation
+                nodeToExplore = promisingNode;
+
+                if (promisingNode.hasChildren()) {
+                    nodeToExplore = promisingNode.getChildWithGreedyPolicy(); // Random??
+                }
+            }
+
+            // Backpropagation
+            if (parallelism == SearchParallelism.LEAF && numberOfThreads > 1) {
+                backPropagation(nodeToExplore, simulateRandomPlayouts(nodeToExplore, numberOfThreads),
+                        numberOfThreads);
+            } else {
+                backPropagation(nodeToExplore, simulateRandomPlayout(nodeToExplore));
+            }
+        }
+
+        return rootNode;
+    }
+
     /**
      * Returns the best move found by Monte Carlo Tree Search using progressive
      * history.
      * 
-     * @param totalActionMap   The total number of times an action has been taken.
-     * @param winningActionMap The total number of times an action resulted in a
-     *                         win.
+     * @param actionStatistics How many times each action was played and won.
      * @return The best move found by Monte Carlo Tree Search using progressive
      */
-    public Move findProgressiveHistoryMove(HashMap<Pair<String, Integer>, Integer> totalActionMap,
-            HashMap<Pair<String, Integer>, Integer> winningActionMap) {
+    public Move findProgressiveHistoryMove(ActionStatistics actionStatistics) {
         Node rootNode = new Node(startingState);
         int iterations = 0;
 
-        while (iterations < maxIterations) {
+        startClock();
+
+        while (canContinue(iterations)) {
             iterations++;
 
             // Selection
-            Node promisingNode = selectPromisingNodeWithHistoryHeuristic(rootNode, totalActionMap, winningActionMap);
+            Node promisingNode = selectPromisingNodeWithHistoryHeuristic(rootNode, actionStatistics);
 
             // Expansion
             if (promisingNode.getState().getCurrentTile() != null) {
@@ -169,20 +419,17 @@ public class MonteCarloTreeSearch {
      * Returns the best node with the progressive history UCT formula.
      * 
      * @param parentNode       The parent node.
-     * @param totalActionMap   The total number of times an action has been taken.
-     * @param winningActionMap The total number of times an action resulted in a
+     * @param actionStatistics How many times each action was played and won.
      * @return The best node with the progressive history UCT formula.
      */
-    private Node selectPromisingNodeWithHistoryHeuristic(Node parentNode,
-            HashMap<Pair<String, Integer>, Integer> totalActionMap,
-            HashMap<Pair<String, Integer>, Integer> winningActionMap) {
+    private Node selectPromisingNodeWithHistoryHeuristic(Node parentNode, ActionStatistics actionStatistics) {
         if (parentNode.getChildren().isEmpty())
             return parentNode;
 
         Node node = null;
 
         while (!parentNode.getChildren().isEmpty()) {
-            node = findBestNodeWithHistoryHeuristic(parentNode, totalActionMap, winningActionMap);
+            node = findBestNodeWithHistoryHeuristic(parentNode, actionStatistics);
             parentNode = node;
         }
 
@@ -190,19 +437,112 @@ public class MonteCarloTreeSearch {
     }
 
     /**
-     * Expands the node by creating all its children.
+     * Descends the tree from the root with the UCT formula, stopping at the first
+     * node that progressive widening lets open a new child. That child is created
+     * and returned; if no node on the way can widen, the leaf reached is returned.
+     * 
+     * @param rootNode    The root of the tree.
+     * @param virtualLoss Whether to count the visits on the way down, for a tree
+     *                    shared with other threads.
+     * @return The node to simulate from.
+     */
+    private Node selectWithWidening(Node rootNode, boolean virtualLoss) {
+        Node node = rootNode;
+
+        while (true) {
+            if (virtualLoss) {
+                node.getState().incrementVisit();
+            }
+
+            Node newChild = expandNextChild(node);
+
+            if (newChild != null) {
+                if (virtualLoss) {
+                    newChild.getState().incrementVisit();
+                }
+
+                return newChild;
+            }
+
+            if (!node.hasChildren()) {
+                return node;
+            }
+
+            node = findBestNodeWithUCT(node);
+        }
+    }
+
+    /**
+     * Creates the next child of the node if it has untried moves and fewer than
+     * {@code wideningConstant * (visits + 1) ^ wideningExponent} children. The
+     * untried moves are listed, in random order, the first time this is called.
+     * Like {@code getAllPossibleChildStates}, moves leading to the state of an
+     * existing child are skipped.
+     * 
+     * @param node The node.
+     * @return The new child, or null if none can be opened.
+     */
+    private Node expandNextChild(Node node) {
+        State state = node.getState();
+
+        if (state.getCurrentTile() == null) {
+            return null;
+        }
+
+        synchronized (node) {
+            if (node.getUntriedMoves() == null) {
+                ArrayList<Move> untriedMoves = state.getPossibleMoves();
+
+                RandomManager.shuffle(untriedMoves);
+                node.setUntriedMoves(untriedMoves);
+            }
+
+            ArrayList<Move> untriedMoves = node.getUntriedMoves();
+            double maxChildren = wideningConstant * Math.pow(state.getVisitCount() + 1, wideningExponent);
+
+            while (!untriedMoves.isEmpty() && node.getChildren().size() < maxChildren) {
+                State childState = state.createChildState(untriedMoves.remove(untriedMoves.size() - 1));
+
+                if (childState == null || !node.addChildHash(childState.getHash())) {
+                    continue;
+                }
+
+                if (transpositionTable != null) {
+                    childState.setStatistics(transpositionTable.get(childState));
+                }
+
+                Node child = new Node(childState);
+                node.addChild(child);
+
+                return child;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Expands the node by creating all its children. If there is a transposition
+     * table, children take the statistics of equal states already in it.
      * 
      * @param promisingNode The node to expand.
      */
     private void expandNode(Node promisingNode) {
         ArrayList<State> possibleStates = promisingNode.getState().getAllPossibleChildStates();
+        ArrayList<Node> children = new ArrayList<>(possibleStates.size());
 
         for (State state : possibleStates) {
+            if (transpositionTable != null) {
+                state.setStatistics(transpositionTable.get(state));
+            }
+
             Node newNode = new Node(state);
 
             newNode.setParent(promisingNode);
-            promisingNode.getChildren().add(newNode);
+            children.add(newNode);
         }
+
+        promisingNode.setChildren(children);
     }
 
     /**
@@ -219,6 +559,58 @@ public class MonteCarloTreeSearch {
         return playoutResult;
     }
 
+    /**
+     * Simulates a random playout from a node of a tree shared with other threads.
+     * The result isn't written to the node, since another thread may be
+     * simulating it too; it is only merged in by backpropagation.
+     * 
+     * @param nodeToExplore The node to explore.
+     * @return The result of the playout.
+     */
+    private int simulateSharedPlayout(Node nodeToExplore) {
+        return nodeToExplore.getState().simulatePlayout(RandomManager.get());
+    }
+
+    /**
+     * Simulates a batch of random playouts from the same node in parallel, on the
+     * common fork-join pool. Each playout gets a random stream split from the
+     * caller's, so the results don't depend on which thread runs it.
+     * 
+     * @param nodeToExplore The node to explore.
+     * @param playouts      The number of playouts.
+     * @return The best result of the playouts.
+     */
+    private int simulateRandomPlayouts(Node nodeToExplore, int playouts) {
+        State state = nodeToExplore.getState();
+        SplittableRandom[] randoms = new SplittableRandom[playouts];
+
+        for (int i = 0; i < playouts; i++) {
+            randoms[i] = RandomManager.split();
+        }
+
+        int playoutResult = IntStream.range(0, playouts).parallel().map(i -> state.simulatePlayout(randoms[i]))
+                .max().getAsInt();
+
+        state.setFinalScoreDifference(playoutResult);
+
+        return playoutResult;
+    }
+
+    /**
+     * Backpropagates the combined result of a batch of playouts, counting one
+     * visit per playout.
+     * 
+     * @param exploredNode  The node to explore.
+     * @param playoutResult The best result of the playouts.
+     * @param playouts      The number of playouts.
+     */
+    private void backPropagation(Node exploredNode, int playoutResult, int playouts) {
+        for (Node node = exploredNode; node != null; node = node.getParent()) {
+            node.getState().getStatistics().addVisits(playouts);
+            node.getState().getStatistics().updateFinalScoreDifference(playoutResult);
+        }
+    }
+
     /**
      * Backpropagates the result of the playout.
      * 
@@ -265,13 +657,10 @@ public class MonteCarloTreeSearch {
      * Returns the best node with the progressive history UCT formula.
      * 
      * @param parentNode       The parent node.
-     * @param totalActionMap   The total number of times an action has been taken.
-     * @param winningActionMap The total number of times an action resulted in a
+     * @param actionStatistics How many times each action was played and won.
      * @return The best node with the progressive history UCT formula.
      */
-    private Node findBestNodeWithHistoryHeuristic(Node parentNode,
-            HashMap<Pair<String, Integer>, Integer> totalActionMap,
-            HashMap<Pair<String, Integer>, Integer> winningActionMap) {
+    private Node findBestNodeWithHistoryHeuristic(Node parentNode, ActionStatistics actionStatistics) {
         int parentVisit = parentNode.getState().getVisitCount();
         double bestValue = Integer.MIN_VALUE;
         Node bestNode = null;
@@ -280,7 +669,7 @@ public class MonteCarloTreeSearch {
             double nodeValue = uctValue(parentVisit, childNode.getState().getFinalScoreDifference(),
                     childNode.getState().getVisitCount())
                     + progressiveHistoryUctValue(parentVisit, bestValue, parentVisit, childNode.getState().getBoard()
-                            .getLastMove(), totalActionMap, winningActionMap);
+                            .getLastMove(), actionStatistics);
             if (nodeValue > bestValue) {
                 bestNode = childNode;
                 bestValue = nodeValue;
@@ -311,31 +700,27 @@ public class MonteCarloTreeSearch {
      * @param nodeScoreDifference The score difference of the node.
      * @param nodeVisit           The number of times the node has been visited.
      * @param performedMove       The move that was performed to get to the node.
-     * @param totalActionMap      The total number of times an action has been
-     *                            taken.
-     * @param winningActionMap    The total number of times an action resulted in a
-     *                            win.
+     * @param actionStatistics    How many times each action was played and
+     *                            won.
      * @return The progressive history UCT value.
      */
     private double progressiveHistoryUctValue(int totalVisit, double nodeScoreDifference, int nodeVisit,
-            Move performedMove, HashMap<Pair<String, Integer>, Integer> totalActionMap,
-            HashMap<Pair<String, Integer>, Integer> winningActionMap) {
+            Move performedMove, ActionStatistics actionStatistics) {
         double uctValue = Integer.MAX_VALUE;
-        double actionScore = 0;
-        int timesActionPlayed = 0;
-        Pair<String, Integer> action = new Pair<String, Integer>(performedMove.getTileId(),
-                performedMove.getFeatureIndex());
 
         if (nodeVisit == 0) {
             return uctValue;
         }
 
-        if (totalActionMap.size() == 0 || winningActionMap.size() == 0) {
-            return uctValue;
-        }
+        int action = ActionStatistics.getIndex(performedMove);
+        // Plain reads of the shared counters, finished games may update them meanwhile
+        long timesActionPlayed = actionStatistics.getPlayed(action);
+        double actionScore = actionStatistics.getWon(action);
 
-        actionScore = winningActionMap.getOrDefault(action, 0);
-        timesActionPlayed = totalActionMap.getOrDefault(action, 0);
+        // An action never seen gets no bonus
+        if (timesActionPlayed == 0) {
+            return 0;
+        }
 
         uctValue = (actionScore / timesActionPlayed) * (progressiveHistoryConstant
                 / (1 + (double) nodeVisit - nodeScoreDifference));
@@ -343,7 +728,163 @@ public class MonteCarloTreeSearch {
         return uctValue;
     }
 
+    /**
+     * Makes the search continue the tree of an earlier search, if the starting
+     * state was reached from that tree's root by the moves played since.
+     * 
+     * Each move is matched to the child whose board hash it produces, so a move
+     * with a symmetric rotation still finds its child. The subtree found becomes
+     * the root with all its statistics, and the rest of the old tree is dropped.
+     * 
+     * @param previousRoot The root of the earlier search.
+     * @return True if the tree was reused.
+     */
+    public boolean reuseTree(Node previousRoot) {
+        List<Move> pastMoves = startingState.getBoard().getPastMoves();
+        int firstMove = previousRoot.getState().getBoard().getPastMoves().size();
+        Node node = previousRoot;
+
+        if (firstMove > pastMoves.size()) {
+            return false;
+        }
+
+        for (Move move : pastMoves.subList(firstMove, pastMoves.size())) {
+            node = findChild(node, move);
+
+            if (node == null) {
+                return false;
+            }
+        }
+
+        // Also checks the tile drawn, the deck and the scores
+        if (node.getState().getHash() != startingState.getHash()) {
+            return false;
+        }
+
+        node.setParent(null);
+        rootNode = node;
+        startingState = node.getState();
+
+        return true;
+    }
+
+    // Returns the child reached by the move, or null if it isn't in the tree
+    private Node findChild(Node node, Move move) {
+        State state = node.getState();
+        long moveHash = Board.getMoveHash(move, state.getPlayers().get(move.getPlayerIndex()));
+
+        for (Node child : node.getChildren()) {
+            if ((child.getState().getBoard().getHash() ^ state.getBoard().getHash()) == moveHash) {
+                return child;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the root of the tree searched by this object, creating it on the
+     * first call.
+     * 
+     * The root holds a clone of the starting state, since the game goes on
+     * changing the board and players it was given while the tree is kept.
+     * 
+     * @return The root node.
+     */
+    public Node getRootNode() {
+        if (rootNode == null) {
+            startingState = CloneManager.clone(startingState);
+            rootNode = new Node(startingState);
+        }
+
+        return rootNode;
+    }
+
     public State getStartingState() {
         return startingState;
     }
+
+    public TranspositionTable getTranspositionTable() {
+        return transpositionTable;
+    }
+
+    public void setTranspositionTable(TranspositionTable transpositionTable) {
+        this.transpositionTable = transpositionTable;
+    }
+
+    public long getTimeBudget() {
+        return timeBudget;
+    }
+
+    /**
+     * Limits every search to the given wall-clock time, after which the best move
+     * found so far is returned.
+     * 
+     * @param timeBudget The time per search in milliseconds, 0 for no limit.
+     */
+    public void setTimeBudget(long timeBudget) {
+        if (timeBudget < 0) {
+            throw new IllegalArgumentException("Invalid time budget: " + timeBudget);
+        }
+
+        this.timeBudget = timeBudget;
+    }
+
+    public boolean isLazyExpansion() {
+        return lazyExpansion;
+    }
+
+    /**
+     * Makes the search create children one at a time, from a list of untried
+     * moves, instead of all of them when a node is first expanded.
+     * 
+     * @param lazyExpansion True to expand lazily.
+     */
+    public void setLazyExpansion(boolean lazyExpansion) {
+        this.lazyExpansion = lazyExpansion;
+    }
+
+    public double getWideningConstant() {
+        return wideningConstant;
+    }
+
+    public double getWideningExponent() {
+        return wideningExponent;
+    }
+
+    /**
+     * Sets how many children a lazily expanded node can have, namely
+     * {@code wideningConstant * (visits + 1) ^ wideningExponent}. An exponent of
+     * 0 with a large constant opens every child as soon as it is reached.
+     * 
+     * @param wideningConstant The constant.
+     * @param wideningExponent The exponent.
+     */
+    public void setProgressiveWidening(double wideningConstant, double wideningExponent) {
+        this.wideningConstant = wideningConstant;
+        this.wideningExponent = wideningExponent;
+    }
+
+    public SearchParallelism getParallelism() {
+        return parallelism;
+    }
+
+    public int getNumberOfThreads() {
+        return numberOfThreads;
+    }
+
+    /**
+     * Sets how the search uses more than one thread.
+     * 
+     * @param parallelism     The kind of parallelism.
+     * @param numberOfThreads The number of threads, or trees for root parallelism.
+     */
+    public void setParallelism(SearchParallelism parallelism, int numberOfThreads) {
+        if (numberOfThreads < 1) {
+            throw new IllegalArgumentException("Invalid number of threads: " + numberOfThreads);
+        }
+
+        this.parallelism = parallelism;
+        this.numberOfThreads = numberOfThreads;
+    }
 }
\ No newline at end of file
@@ -1,6 +1,9 @@
 package luca.carcassonne.mcts;
 
+import java.util.Objects;
+
 import luca.carcassonne.tile.Coordinates;
+import luca.carcassonne.tile.TileType;
 
 /**
  * A move in the game.
@@ -8,11 +11,16 @@ import luca.carcassonne.tile.Coordinates;
  * A move is represented by the coordinates of the tile, the tile id, the
  * rotation of the tile, the player index, and the feature index.
  * 
+ * The id of the tile's type in the {@code TileType} catalog is looked up from
+ * the tile id the first time it is needed and kept, so the progressive history
+ * search indexes its statistics without hashing strings.
+ * 
  * @author Luca Brown
  */
 public class Move {
     private Coordinates coordinates;
     private String tileId;
+    private int tileTypeId = -1;
     private int rotation;
     private int playerIndex;
     private int featureIndex;
@@ -54,6 +62,15 @@ public class Move {
 
     public void setTileId(String tileId) {
         this.tileId = tileId;
+        this.tileTypeId = -1;
+    }
+
+    public int getTileTypeId() {
+        if (tileTypeId < 0 && tileId != null) {
+            tileTypeId = TileType.get(tileId).getId();
+        }
+
+        return tileTypeId;
     }
 
     public int getRotation() {
@@ -85,4 +102,23 @@ public class Move {
         return "Move [" + coordinates + ", " + tileId + ", r" + rotation + ", p" + playerIndex
                 + ", f" + featureIndex + "]";
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        }
+        if (!(o instanceof Move)) {
+            return false;
+        }
+        Move m = (Move) o;
+        return m.getRotation() == rotation && m.getPlayerIndex() == playerIndex
+                && m.getFeatureIndex() == featureIndex && Objects.equals(m.getCoordinates(), coordinates)
+                && Objects.equals(m.getTileId(), tileId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(coordinates, tileId, rotation, playerIndex, featureIndex);
+    }
 }
@@ -3,6 +3,7 @@ package luca.carcassonne.mcts;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.Scanner;
 import java.util.stream.Collectors;
 
@@ -18,7 +19,12 @@ import luca.carcassonne.tile.feature.Monastery;
 public class Node {
     private State state;
     private Node parent;
-    private ArrayList<Node> children;
+    // Replaced rather than added to, so threads sharing the tree see it whole
+    private volatile ArrayList<Node> children;
+    // The moves not yet turned into children, null until the node is expanded lazily
+    private ArrayList<Move> untriedMoves;
+    // The hashes of the children's states, so lazily created children aren't duplicated
+    private HashSet<Long> childHashes;
 
     public Node() {
         this.state = new State();
@@ -60,6 +66,44 @@ public class Node {
         this.children = children;
     }
 
+    public ArrayList<Move> getUntriedMoves() {
+        return untriedMoves;
+    }
+
+    public void setUntriedMoves(ArrayList<Move> untriedMoves) {
+        this.untriedMoves = untriedMoves;
+    }
+
+    /**
+     * Records the hash of a new child's state, for a node expanded lazily. Moves
+     * that lead to the same state, e.g. a meeple on either half of a symmetric
+     * field, should only give one child.
+     * 
+     * @param hash The hash of the child's state.
+     * @return True if no child with that hash was recorded before.
+     */
+    public boolean addChildHash(long hash) {
+        if (childHashes == null) {
+            childHashes = new HashSet<>();
+        }
+
+        return childHashes.add(hash);
+    }
+
+    /**
+     * Adds a child without changing the list other threads may be iterating.
+     * 
+     * @param child The new child.
+     */
+    public void addChild(Node child) {
+        ArrayList<Node> newChildren = new ArrayList<>(children.size() + 1);
+
+        newChildren.addAll(children);
+        newChildren.add(child);
+        child.setParent(this);
+        children = newChildren;
+    }
+
     public boolean hasChildren() {
         return children.size() > 0;
     }
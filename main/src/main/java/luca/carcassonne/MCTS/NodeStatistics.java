@@ -0,0 +1,56 @@
+package luca.carcassonne.mcts;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The statistics gathered by the search for a state: how many times it was
+ * visited and the best score difference found from it.
+ *
+ * Kept apart from {@code State} so that nodes reaching the same position
+ * through different moves can share them. The counters are atomic, so threads
+ * searching a shared tree can update them without locking.
+ *
+ * @author Luca Brown
+ */
+public class NodeStatistics {
+    private final AtomicInteger visitCount;
+    private final AtomicInteger finalScoreDifference;
+
+    public NodeStatistics() {
+        this.visitCount = new AtomicInteger();
+        this.finalScoreDifference = new AtomicInteger();
+    }
+
+    public void incrementVisit() {
+        visitCount.incrementAndGet();
+    }
+
+    public void addVisits(int visits) {
+        visitCount.addAndGet(visits);
+    }
+
+    public int getVisitCount() {
+        return visitCount.get();
+    }
+
+    public void setVisitCount(int visitCount) {
+        this.visitCount.set(visitCount);
+    }
+
+    public int getFinalScoreDifference() {
+        return finalScoreDifference.get();
+    }
+
+    public void setFinalScoreDifference(int finalScoreDifference) {
+        this.finalScoreDifference.set(finalScoreDifference);
+    }
+
+    /**
+     * Raises the best score difference to the given one if it's higher.
+     *
+     * @param scoreDifference The score difference of a playout.
+     */
+    public void updateFinalScoreDifference(int scoreDifference) {
+        finalScoreDifference.accumulateAndGet(scoreDifference, Math::max);
+    }
+}
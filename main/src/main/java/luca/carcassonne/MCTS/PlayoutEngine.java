@@ -0,0 +1,775 @@
+package luca.carcassonne.mcts;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.Stack;
+
+import luca.carcassonne.RandomManager;
+import luca.carcassonne.Settings;
+import luca.carcassonne.player.Player;
+import luca.carcassonne.tile.CardinalPoint;
+import luca.carcassonne.tile.SideFeature;
+import luca.carcassonne.tile.Tile;
+import luca.carcassonne.tile.TileType;
+import luca.carcassonne.tile.feature.Castle;
+import luca.carcassonne.tile.feature.Road;
+import luca.carcassonne.tile.feature.Field;
+
+/**
+ * Plays random games to the end on a compact copy of a state.
+ *
+ * The board is a grid of ints holding the type and rotation of each placed
+ * tile, and the features are a union-find over dense ids like in
+ * {@code FeatureTracker}, with the meeples of each player kept per set. The
+ * tile types come from the {@code TileType} catalog, so no tile or feature
+ * object is created during a playout.
+ *
+ * Every buffer is allocated once and reused by the next playouts, so once the
+ * engine has grown to the size of the game a playout allocates nothing. Each
+ * thread gets its own engine through {@code get()}, and playouts draw from the
+ * thread's stream in {@code RandomManager} unless given one.
+ *
+ * The rules are the same as {@code Board} and {@code ScoreManager} with the
+ * union-find feature engine.
+ *
+ * @author Luca Brown
+ */
+public class PlayoutEngine {
+    private static final int CASTLE = 0;
+    private static final int ROAD = 1;
+    private static final int FIELD = 2;
+    private static final int MONASTERY = 3;
+
+    // [type][feature]
+    private static final int[][] KINDS;
+    private static final boolean[][] SHIELDS;
+    private static final int[][][] ADJACENT_CASTLES;
+    // [type * 4 + rotation][feature], see CardinalPoint
+    private static final int[][] MASKS;
+    // [type * 4 + rotation], the side features packed like Frontier.getSignature
+    private static final int[] SIGNATURES;
+    // [type][slot key], the rotations of the type that fit a slot as a 4-bit mask
+    private static final byte[][] ACCEPTED_ROTATIONS;
+    // [type], the index of the monastery or -1
+    private static final int[] MONASTERIES;
+    private static final int MAX_FEATURES;
+
+    private static final ThreadLocal<PlayoutEngine> ENGINES = ThreadLocal.withInitial(PlayoutEngine::new);
+
+    static {
+        int nTypes = TileType.getNumberOfTypes();
+        int maxFeatures = 0;
+
+        KINDS = new int[nTypes][];
+        SHIELDS = new boolean[nTypes][];
+        ADJACENT_CASTLES = new int[nTypes][][];
+        MASKS = new int[nTypes * 4][];
+        SIGNATURES = new int[nTypes * 4];
+        ACCEPTED_ROTATIONS = new byte[nTypes][1 << 12];
+        MONASTERIES = new int[nTypes];
+
+        for (int type = 0; type < nTypes; type++) {
+            TileType tileType = TileType.get(type);
+            int nFeatures = tileType.getNumberOfFeatures();
+
+            KINDS[type] = new int[nFeatures];
+            SHIELDS[type] = new boolean[nFeatures];
+            ADJACENT_CASTLES[type] = new int[nFeatures][];
+            MONASTERIES[type] = -1;
+            maxFeatures = Math.max(maxFeatures, nFeatures);
+
+            for (int k = 0; k < nFeatures; k++) {
+                Class<?> featureClass = tileType.getFeatureClass(k);
+
+                if (featureClass == Castle.class) {
+                    KINDS[type][k] = CASTLE;
+                } else if (featureClass == Road.class) {
+                    KINDS[type][k] = ROAD;
+                } else if (featureClass == Field.class) {
+                    KINDS[type][k] = FIELD;
+                } else {
+                    KINDS[type][k] = MONASTERY;
+                    MONASTERIES[type] = k;
+                }
+
+                SHIELDS[type][k] = tileType.hasShield(k);
+                ADJACENT_CASTLES[type][k] = tileType.getAdjacentCastles(k);
+            }
+
+            for (int rotation = 0; rotation < 4; rotation++) {
+                SideFeature[] sides = tileType.getSideFeatures(rotation);
+
+                MASKS[type * 4 + rotation] = new int[nFeatures];
+
+                for (int k = 0; k < nFeatures; k++) {
+                    MASKS[type * 4 + rotation][k] = tileType.getCardinalPointMask(rotation, k);
+                }
+
+                for (int side = 0; side < 4; side++) {
+                    SIGNATURES[type * 4 + rotation] |= sides[side].ordinal() << (2 * side);
+                }
+            }
+
+            // A slot key is the required side features in the low 8 bits and the sides that have a neighbour above
+            for (int key = 0; key < 1 << 12; key++) {
+                int mask = 0;
+
+                for (int side = 0; side < 4; side++) {
+                    if ((key >> (8 + side) & 1) != 0) {
+                        mask |= 3 << (2 * side);
+                    }
+                }
+
+                for (int rotation = 0; rotation < 4; rotation++) {
+                    if ((SIGNATURES[type * 4 + rotation] & mask) == (key & mask)) {
+                        ACCEPTED_ROTATIONS[type][key] |= 1 << rotation;
+                    }
+                }
+            }
+        }
+
+        MAX_FEATURES = maxFeatures;
+    }
+
+    private int nPlayers;
+    private int[] scores;
+    private int[] availableMeeples;
+    // The tiles still to be drawn, the next one last
+    private int[] deck;
+    private int deckSize;
+
+    // The grid, a cell is (x + offset) * dimension + (y + offset)
+    private int capacity;
+    private int dimension;
+    private int offset;
+    private int[] steps;
+    // Per cell: type * 4 + rotation + 1 of the tile on it, 0 if it's empty
+    private int[] cells;
+    private int[] cellTiles;
+    // Per cell: its index in the frontier + 1, 0 if it isn't in it
+    private int[] frontierIndexes;
+    // Indexed like the frontier: the side features each slot's neighbours require, see ACCEPTED_ROTATIONS
+    private int[] slotKeys;
+    private int[] frontier;
+    private int frontierSize;
+
+    // Per tile, in placement order
+    private int[] tileCells;
+    private int[] tileBases;
+    private int[] tileStamps;
+    private int nTiles;
+
+    // Per feature, the counters are only meaningful on roots
+    private int[] parent;
+    private int[] size;
+    private int[] next;
+    private int[] openSides;
+    private int[] shields;
+    private int[] meeples;
+    private boolean[] closed;
+    private int[] featureTiles;
+    private int[] featureIndexes;
+    private int[] featureStamps;
+    // [feature * nPlayers + player]
+    private int[] seatMeeples;
+    private int nFeatures;
+
+    private int[] openMonasteries;
+    private int nOpenMonasteries;
+    private int[] newlyClosed;
+    private int nNewlyClosed;
+    // Legal placements of the current tile, each one is cell * 4 + rotation
+    private int[] placements;
+    private int nPlacements;
+    private int stamp;
+
+    public PlayoutEngine() {
+        this.nPlayers = 0;
+        this.capacity = 0;
+    }
+
+    /**
+     * Returns the engine of the current thread.
+     *
+     * @return The engine.
+     */
+    public static PlayoutEngine get() {
+        return ENGINES.get();
+    }
+
+    /**
+     * Copies a state into the engine: its placed tiles and meeples, the players'
+     * scores and meeples and the tiles left to draw, starting with the current
+     * one. The state itself isn't changed.
+     *
+     * @param state The state to copy.
+     */
+    public void load(State state) {
+        ArrayList<Tile> placedTiles = state.getBoard().getPlacedTiles();
+        Stack<Tile> availableTiles = state.getAvailableTiles();
+        ArrayList<Player> players = state.getPlayers();
+        Tile currentTile = state.getCurrentTile();
+
+        ensureCapacity(placedTiles.size() + availableTiles.size() + 1, players.size());
+        clear();
+
+        for (int i = 0; i < nPlayers; i++) {
+            scores[i] = players.get(i).getScore();
+            availableMeeples[i] = players.get(i).getAvailableMeeples();
+        }
+
+        for (int i = 0; i < placedTiles.size(); i++) {
+            Tile tile = placedTiles.get(i);
+            int base = nFeatures;
+
+            placeTile(getCell(tile.getCoordinates().getX(), tile.getCoordinates().getY()), tile.getTypeId(),
+                    tile.getRotation());
+
+            // Meeples on closed features were already scored and given back
+            for (int k = 0; k < tile.getFeatures().size(); k++) {
+                Player owner = tile.getFeatures().get(k).getOwner();
+
+                if (owner != null) {
+                    addMeeple(find(base + k), players.indexOf(owner));
+                }
+            }
+        }
+
+        nNewlyClosed = 0;
+
+        if (currentTile != null) {
+            for (int i = 0; i < availableTiles.size(); i++) {
+                deck[deckSize++] = availableTiles.get(i).getTypeId();
+            }
+
+            deck[deckSize++] = currentTile.getTypeId();
+        }
+    }
+
+    /**
+     * Plays the loaded game to the end: each tile goes to a random legal
+     * placement and gets a meeple on a random feature with a 30% chance, fields
+     * being picked less often. Tiles that fit nowhere are discarded. Open
+     * features are scored at the end.
+     *
+     * @param player The index of the player to move first.
+     */
+    public void playOut(int player) {
+        playOut(player, RandomManager.get());
+    }
+
+    /**
+     * Plays the loaded game to the end, drawing from the given stream.
+     *
+     * @param player The index of the player to move first.
+     * @param random The random stream.
+     */
+    public void playOut(int player, SplittableRandom random) {
+        while (deckSize > 0) {
+            int type = deck[--deckSize];
+
+            findPlacements(type);
+
+            if (nPlacements == 0) {
+                continue;
+            }
+
+            int placement = placements[random.nextInt(nPlacements)];
+            int base = nFeatures;
+            int nTypeFeatures = KINDS[type].length;
+
+            placeTile(placement >> 2, type, placement & 3);
+
+            int feature = random.nextInt(nTypeFeatures);
+
+            while (KINDS[type][feature] == FIELD && random.nextInt(10) < 7) {
+                feature = random.nextInt(nTypeFeatures);
+            }
+
+            if (random.nextInt(10) < 3) {
+                placeMeeple(base + feature, player);
+            }
+
+            scoreClosedFeatures();
+            player = (player + 1) % nPlayers;
+        }
+
+        scoreOpenFeatures();
+    }
+
+    /**
+     * Places a tile and optionally a meeple, then scores the features it closes.
+     * The placement must be legal, the meeple is left out if it can't be placed.
+     *
+     * @param x            The x coordinate.
+     * @param y            The y coordinate.
+     * @param typeId       The type of the tile.
+     * @param rotation     The rotation of the tile.
+     * @param featureIndex The feature to put a meeple on, or -1 for none.
+     * @param player       The index of the player making the move.
+     * @return True if the meeple was placed.
+     */
+    public boolean place(int x, int y, int typeId, int rotation, int featureIndex, int player) {
+        int base = nFeatures;
+        boolean meeplePlaced = false;
+
+        placeTile(getCell(x, y), typeId, rotation & 3);
+
+        if (featureIndex != -1) {
+            meeplePlaced = placeMeeple(base + featureIndex, player);
+        }
+
+        scoreClosedFeatures();
+
+        return meeplePlaced;
+    }
+
+    /**
+     * Returns the number of legal (coordinates, rotation) pairs for a tile.
+     *
+     * @param typeId The type of the tile.
+     * @return The number of legal placements.
+     */
+    public int countPlacements(int typeId) {
+        findPlacements(typeId);
+
+        return nPlacements;
+    }
+
+    /**
+     * Scores the open features that have meeples on them, giving the points to
+     * every player with a meeple on the feature.
+     */
+    public void scoreOpenFeatures() {
+        for (int id = 0; id < nFeatures; id++) {
+            if (parent[id] != id || closed[id] || meeples[id] == 0) {
+                continue;
+            }
+
+            int score = getValue(id, false);
+
+            if (score == 0) {
+                continue;
+            }
+
+            for (int player = 0; player < nPlayers; player++) {
+                if (seatMeeples[id * nPlayers + player] > 0) {
+                    scores[player] += score;
+                }
+            }
+        }
+    }
+
+    public int getScore(int player) {
+        return scores[player];
+    }
+
+    public int getAvailableMeeples(int player) {
+        return availableMeeples[player];
+    }
+
+    /**
+     * Returns the sum of the other players' scores minus the given player's, like
+     * {@code State.calculateScoreDifference}.
+     *
+     * @param player The index of the player.
+     * @return The score difference.
+     */
+    public int getScoreDifference(int player) {
+        int pointDifference = 0;
+
+        for (int i = 0; i < nPlayers; i++) {
+            if (i != player) {
+                pointDifference += scores[i];
+            } else {
+                pointDifference -= scores[i];
+            }
+        }
+
+        return pointDifference;
+    }
+
+    // Places a tile on an empty cell, linking and closing its features
+    private void placeTile(int cell, int type, int rotation) {
+        int code = type * 4 + rotation;
+        int[] masks = MASKS[code];
+        int[] kinds = KINDS[type];
+        int tile = nTiles++;
+        int base = nFeatures;
+
+        tileCells[tile] = cell;
+        tileBases[tile] = base;
+        tileStamps[tile] = 0;
+        cells[cell] = code + 1;
+        cellTiles[cell] = tile;
+        removeFromFrontier(cell);
+
+        for (int k = 0; k < kinds.length; k++) {
+            int id = nFeatures++;
+
+            parent[id] = id;
+            size[id] = 1;
+            next[id] = id;
+            openSides[id] = Integer.bitCount(masks[k] & CardinalPoint.SIDE_MASK);
+            shields[id] = SHIELDS[type][k] ? 1 : 0;
+            meeples[id] = 0;
+            closed[id] = false;
+            featureTiles[id] = tile;
+            featureIndexes[id] = k;
+            featureStamps[id] = 0;
+
+            for (int player = 0; player < nPlayers; player++) {
+                seatMeeples[id * nPlayers + player] = 0;
+            }
+        }
+
+        nNewlyClosed = 0;
+
+        for (int position = 0; position < 4; position++) {
+            int neighbour = cell + steps[position];
+            int neighbourCode = cells[neighbour] - 1;
+
+            if (neighbourCode < 0) {
+                int side = (position + 2) % 4;
+
+                addToFrontier(neighbour);
+                slotKeys[frontierIndexes[neighbour] - 1] |= ((SIGNATURES[code] >> (2 * position)) & 3) << (2 * side) | 1 << (8 + side);
+                continue;
+            }
+
+            int[] neighbourMasks = MASKS[neighbourCode];
+            int[] neighbourKinds = KINDS[neighbourCode >> 2];
+            int neighbourBase = tileBases[cellTiles[neighbour]];
+            int edgeMask = CardinalPoint.getEdgeMask((position + 2) % 4);
+
+            for (int j = 0; j < neighbourKinds.length; j++) {
+                int edge = neighbourMasks[j] & edgeMask;
+
+                if (edge == 0) {
+                    continue;
+                }
+
+                int facing = CardinalPoint.getFacing(edge);
+
+                for (int k = 0; k < kinds.length; k++) {
+                    if (kinds[k] == neighbourKinds[j] && (facing & masks[k]) != 0) {
+                        union(neighbourBase + j, base + k);
+                    }
+                }
+            }
+        }
+
+        for (int k = 0; k < kinds.length; k++) {
+            if (kinds[k] == CASTLE || kinds[k] == ROAD) {
+                int root = find(base + k);
+
+                if (!closed[root] && openSides[root] == 0) {
+                    close(root);
+                }
+            }
+        }
+
+        if (MONASTERIES[type] >= 0) {
+            openMonasteries[nOpenMonasteries++] = cell;
+        }
+
+        for (int i = 0; i < nOpenMonasteries; i++) {
+            int monasteryCell = openMonasteries[i];
+
+            if (getSurroundingTiles(monasteryCell) == 8) {
+                int monasteryTile = cellTiles[monasteryCell];
+
+                close(find(tileBases[monasteryTile] + MONASTERIES[(cells[monasteryCell] - 1) >> 2]));
+                openMonasteries[i--] = openMonasteries[--nOpenMonasteries];
+            }
+        }
+    }
+
+    // Fills the placements buffer with the legal placements of a tile
+    private void findPlacements(int type) {
+        byte[] accepted = ACCEPTED_ROTATIONS[type];
+
+        nPlacements = 0;
+
+        for (int i = 0; i < frontierSize; i++) {
+            int rotations = accepted[slotKeys[i]];
+
+            while (rotations != 0) {
+                placements[nPlacements++] = frontier[i] * 4 + Integer.numberOfTrailingZeros(rotations);
+                rotations &= rotations - 1;
+            }
+        }
+    }
+
+    private boolean placeMeeple(int id, int player) {
+        int root = find(id);
+
+        if (availableMeeples[player] <= 0) {
+            return false;
+        }
+
+        if (meeples[root] > 0 && seatMeeples[root * nPlayers + player] == 0) {
+            return false;
+        }
+
+        availableMeeples[player]--;
+        addMeeple(root, player);
+
+        return true;
+    }
+
+    private void addMeeple(int root, int player) {
+        meeples[root]++;
+        seatMeeples[root * nPlayers + player]++;
+    }
+
+    // Scores the sets closed by the last tile, the players with the most meeples get the points
+    private void scoreClosedFeatures() {
+        for (int i = 0; i < nNewlyClosed; i++) {
+            int root = newlyClosed[i];
+
+            if (meeples[root] == 0) {
+                continue;
+            }
+
+            int score = getValue(root, true);
+            int maxMeeples = 0;
+
+            for (int player = 0; player < nPlayers; player++) {
+                maxMeeples = Math.max(maxMeeples, seatMeeples[root * nPlayers + player]);
+            }
+
+            for (int player = 0; player < nPlayers; player++) {
+                int playerMeeples = seatMeeples[root * nPlayers + player];
+
+                availableMeeples[player] += playerMeeples;
+
+                if (playerMeeples == maxMeeples) {
+                    scores[player] += score;
+                }
+            }
+        }
+
+        nNewlyClosed = 0;
+    }
+
+    // Same values as ScoreManager
+    private int getValue(int root, boolean isClosed) {
+        switch (KINDS[getType(featureTiles[root])][featureIndexes[root]]) {
+            case ROAD:
+                return getTileCount(root);
+            case CASTLE:
+                if (isClosed) {
+                    return getTileCount(root) * Settings.CASTLE_POINTS_CLOSED
+                            + shields[root] * Settings.SHIELD_POINTS_CLOSED;
+                }
+
+                return getTileCount(root) * Settings.CASTLE_POINTS_OPEN + shields[root] * Settings.SHIELD_POINTS_OPEN;
+            case FIELD:
+                return Settings.FIELD_POINTS_PER_CASTLE * getClosedCastleCount(root);
+            default:
+                return isClosed ? 9 : 1 + getSurroundingTiles(tileCells[featureTiles[root]]);
+        }
+    }
+
+    // The number of distinct tiles in a set
+    private int getTileCount(int root) {
+        if (size[root] == 1) {
+            return 1;
+        }
+
+        int count = 0;
+        int id = root;
+
+        stamp++;
+
+        do {
+            if (tileStamps[featureTiles[id]] != stamp) {
+                tileStamps[featureTiles[id]] = stamp;
+                count++;
+            }
+
+            id = next[id];
+        } while (id != root);
+
+        return count;
+    }
+
+    // The number of distinct closed castles next to a set of fields
+    private int getClosedCastleCount(int root) {
+        int count = 0;
+        int id = root;
+
+        stamp++;
+
+        do {
+            int tile = featureTiles[id];
+
+            for (int castle : ADJACENT_CASTLES[getType(tile)][featureIndexes[id]]) {
+                int castleRoot = find(tileBases[tile] + castle);
+
+                if (closed[castleRoot] && featureStamps[castleRoot] != stamp) {
+                    featureStamps[castleRoot] = stamp;
+                    count++;
+                }
+            }
+
+            id = next[id];
+        } while (id != root);
+
+        return count;
+    }
+
+    private int getSurroundingTiles(int cell) {
+        int nSurroundingTiles = 0;
+
+        for (int i = -1; i <= 1; i++) {
+            for (int j = -1; j <= 1; j++) {
+                if ((i != 0 || j != 0) && cells[cell + i * dimension + j] != 0) {
+                    nSurroundingTiles++;
+                }
+            }
+        }
+
+        return nSurroundingTiles;
+    }
+
+    private int find(int id) {
+        while (parent[id] != id) {
+            id = parent[id];
+        }
+
+        return id;
+    }
+
+    // Links two features across an edge, see FeatureTracker.union
+    private void union(int feature, int newFeature) {
+        int root = find(feature);
+        int newRoot = find(newFeature);
+
+        if (root != newRoot) {
+            if (size[root] < size[newRoot]) {
+                int temp = root;
+                root = newRoot;
+                newRoot = temp;
+            }
+
+            parent[newRoot] = root;
+            size[root] += size[newRoot];
+            openSides[root] += openSides[newRoot];
+            shields[root] += shields[newRoot];
+            meeples[root] += meeples[newRoot];
+
+            for (int player = 0; player < nPlayers; player++) {
+                seatMeeples[root * nPlayers + player] += seatMeeples[newRoot * nPlayers + player];
+            }
+
+            int temp = next[root];
+            next[root] = next[newRoot];
+            next[newRoot] = temp;
+        }
+
+        openSides[root] -= 2;
+    }
+
+    private void close(int root) {
+        closed[root] = true;
+        newlyClosed[nNewlyClosed++] = root;
+    }
+
+    private void addToFrontier(int cell) {
+        if (frontierIndexes[cell] == 0) {
+            slotKeys[frontierSize] = 0;
+            frontier[frontierSize++] = cell;
+            frontierIndexes[cell] = frontierSize;
+        }
+    }
+
+    // Moves the last slot in the removed one's place
+    private void removeFromFrontier(int cell) {
+        int index = frontierIndexes[cell] - 1;
+
+        if (index < 0) {
+            return;
+        }
+
+        int last = frontier[--frontierSize];
+
+        frontier[index] = last;
+        slotKeys[index] = slotKeys[frontierSize];
+        frontierIndexes[last] = index + 1;
+        frontierIndexes[cell] = 0;
+    }
+
+    private int getType(int tile) {
+        return (cells[tileCells[tile]] - 1) >> 2;
+    }
+
+    private int getCell(int x, int y) {
+        return (x + offset) * dimension + y + offset;
+    }
+
+    // Empties the grid and the features, keeping the buffers
+    private void clear() {
+        for (int i = 0; i < nTiles; i++) {
+            cells[tileCells[i]] = 0;
+        }
+
+        for (int i = 0; i < frontierSize; i++) {
+            frontierIndexes[frontier[i]] = 0;
+        }
+
+        nTiles = 0;
+        nFeatures = 0;
+        frontierSize = 0;
+        nOpenMonasteries = 0;
+        nNewlyClosed = 0;
+        deckSize = 0;
+    }
+
+    // Grows the buffers to fit a game of the given number of tiles
+    private void ensureCapacity(int nGameTiles, int nGamePlayers) {
+        if (nGamePlayers != nPlayers) {
+            nPlayers = nGamePlayers;
+            scores = new int[nPlayers];
+            availableMeeples = new int[nPlayers];
+            capacity = 0;
+        }
+
+        if (nGameTiles <= capacity) {
+            return;
+        }
+
+        int featureCapacity = nGameTiles * MAX_FEATURES;
+
+        capacity = nGameTiles;
+        offset = capacity + 1;
+        dimension = 2 * offset + 1;
+        steps = new int[] { 1, dimension, -1, -dimension };
+        deck = new int[capacity];
+        cells = new int[dimension * dimension];
+        cellTiles = new int[dimension * dimension];
+        frontierIndexes = new int[dimension * dimension];
+        frontier = new int[4 * capacity + 4];
+        slotKeys = new int[4 * capacity + 4];
+        tileCells = new int[capacity];
+        tileBases = new int[capacity];
+        tileStamps = new int[capacity];
+        parent = new int[featureCapacity];
+        size = new int[featureCapacity];
+        next = new int[featureCapacity];
+        openSides = new int[featureCapacity];
+        shields = new int[featureCapacity];
+        meeples = new int[featureCapacity];
+        closed = new boolean[featureCapacity];
+        featureTiles = new int[featureCapacity];
+        featureIndexes = new int[featureCapacity];
+        featureStamps = new int[featureCapacity];
+        seatMeeples = new int[featureCapacity * nPlayers];
+        openMonasteries = new int[capacity];
+        newlyClosed = new int[featureCapacity];
+        placements = new int[4 * (4 * capacity + 4)];
+        nTiles = 0;
+        frontierSize = 0;
+    }
+}
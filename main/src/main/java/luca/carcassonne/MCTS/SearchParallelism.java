@@ -0,0 +1,20 @@
+package luca.carcassonne.mcts;
+
+/**
+ * The ways a {@code MonteCarloTreeSearch} can use more than one thread.
+ *
+ * {@code NONE} searches a single tree on the calling thread. {@code ROOT}
+ * searches one independent tree per thread and adds up the visit counts of
+ * their root children to choose the move. {@code TREE} has every thread
+ * search the same tree, using virtual loss to keep them on different paths.
+ * {@code LEAF} keeps a single tree but runs one playout per thread from each
+ * selected node.
+ *
+ * @author Luca Brown
+ */
+public enum SearchParallelism {
+    NONE,
+    ROOT,
+    TREE,
+    LEAF;
+}
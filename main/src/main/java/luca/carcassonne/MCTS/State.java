@@ -1,21 +1,18 @@
 package luca.carcassonne.mcts;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
+import java.util.SplittableRandom;
 import java.util.Stack;
 
 import luca.carcassonne.Board;
 import luca.carcassonne.CloneManager;
-import luca.carcassonne.ScoreManager;
-import luca.carcassonne.Settings;
+import luca.carcassonne.RandomManager;
+import luca.carcassonne.Zobrist;
 import luca.carcassonne.player.Player;
-import luca.carcassonne.tile.Coordinates;
-import luca.carcassonne.tile.SideFeature;
+import luca.carcassonne.tile.Placement;
 import luca.carcassonne.tile.Tile;
-import luca.carcassonne.tile.feature.Feature;
-import luca.carcassonne.tile.feature.Field;
+import luca.carcassonne.tile.TileType;
 
 /**
  * Represents a game state.
@@ -25,6 +22,10 @@ import luca.carcassonne.tile.feature.Field;
  * It is represented by a board, a list of players, a list of available tiles,
  * and the current player.
  * 
+ * The state keeps its Zobrist hash up to date as it changes, so moves must be
+ * applied with {@code applyMove} and tiles drawn with {@code popNewTile} rather
+ * than by changing the board, players or deck directly.
+ * 
  * @author Luca Brown
  */
 public class State {
@@ -34,8 +35,11 @@ public class State {
     private Tile currentTile;
     private Stack<Tile> availableTiles;
     private ArrayList<Player> players;
-    private int visitCount;
-    private int finalScoreDifference;
+    private NodeStatistics statistics;
+    // Zobrist keys of the player to move, the current tile and the players
+    private long turnHash;
+    // Zobrist keys of the deck, added rather than XOR-ed, see Zobrist.deckTile
+    private long deckHash;
 
     public State() {
         this.board = null;
@@ -44,8 +48,8 @@ public class State {
         this.currentTile = null;
         this.availableTiles = null;
         this.players = null;
-        this.visitCount = 0;
-        this.finalScoreDifference = 0;
+        this.statistics = new NodeStatistics();
+        rehash();
     }
 
     public State(Board startingBoard, int startingPlayer, Tile currentTile,
@@ -57,213 +61,165 @@ public class State {
         this.currentTile = currentTile;
         this.players = players;
         this.availableTiles = availableTiles;
-        this.visitCount = 0;
-        this.finalScoreDifference = 0;
+        this.statistics = new NodeStatistics();
+        rehash();
     }
 
     /**
-     * Returns all possible child states reachable from this state.
+     * Returns all possible child states reachable from this state. Moves that lead
+     * to the same state, e.g. a meeple on either half of a symmetric field, only
+     * give one child.
      * 
      * @return All possible child states reachable from this state.
      */
     public ArrayList<State> getAllPossibleChildStates() {
         ArrayList<State> possibleChildStates = new ArrayList<>();
-        List<Coordinates> possibleCoordinates = this.board.getPossibleCoordinates();
-        int rotations = getSymmetricRotations(currentTile);
-
-        State junkState = CloneManager.clone(this);
-
-        for (Coordinates coordinates : possibleCoordinates) {
-            for (int i = 0; i < rotations; i++) {
-                // for (int j = 0; j < currentTile.getFeatures().size() + 1; j++) {
-                // State junkState = CloneManager.clone(this);
-                Tile junkTile = CloneManager.clone(currentTile);
-                Coordinates junkCoordinates = CloneManager.clone(coordinates);
-
-                junkTile.rotateClockwise(i);
-
-                boolean placed = junkState.getBoard().canPlaceJunkTile(junkCoordinates, junkTile);
-                boolean meeplePlaced = false;
-
-                if (placed) {
-                    for (int k = 0; k < currentTile.getFeatures().size(); k++) {
-                        State newState = CloneManager.clone(this);
-                        Tile newTile = CloneManager.clone(newState.getCurrentTile());
-                        Coordinates newCoordinates = CloneManager.clone(coordinates);
+        HashSet<Long> childHashes = new HashSet<>();
 
-                        if (newState.getPlayers().get(currentPlayer).getAvailableMeeples() == 0) {
-                            break;
-                        }
+        for (Move move : getPossibleMoves()) {
+            State newState = createChildState(move);
 
-                        newTile.rotateClockwise(i);
-
-                        if (!newState.getBoard().placeTile(newCoordinates, newTile)) {
-                            throw new RuntimeException("Tile could not be placed to determine child.");
-                        }
-
-                        meeplePlaced = newState.getBoard().placeMeeple(newTile.getFeatures().get(k),
-                                newState.getPlayers().get(currentPlayer));
-
-                        if (!meeplePlaced) {
-                            // throw new RuntimeException("Meeple could not be placed to determine child.");
-                            continue;
-                        }
+            if (newState == null) {
+                throw new RuntimeException("Move could not be applied to determine child: " + move);
+            }
 
-                        newState.getBoard()
-                                .addNewMove(new Move(newCoordinates, newTile.getId(), i, currentPlayer, k));
+            if (childHashes.add(newState.getHash())) {
+                possibleChildStates.add(newState);
+            }
+        }
 
-                        ScoreManager.scoreClosedFeatures(newState.getBoard(), false);
+        return possibleChildStates;
+    }
 
-                        newState.setCurrentPlayer((currentPlayer + 1) % players.size());
-                        newState.setOriginalPlayer(originalPlayer);
-                        newState.setCurrentTile(
-                                (newState.getAvailableTiles().isEmpty() ? null
-                                        : newState.getAvailableTiles().pop()));
+    /**
+     * Returns the legal moves from this state, using only read-only queries on the
+     * board: no state or tile is created per candidate. Rotations that give the
+     * same tile as a smaller one are left out, and for each placement the meeple
+     * moves come before the move without a meeple. The current tile may already
+     * be rotated: the moves' rotations are counted from the unrotated tile.
+     * 
+     * @return The legal moves.
+     */
+    public ArrayList<Move> getPossibleMoves() {
+        ArrayList<Move> possibleMoves = new ArrayList<>();
+        TileType type = TileType.get(currentTile.getTypeId());
+        Player player = players.get(currentPlayer);
+
+        for (Placement legalPlacement : board.legalPlacements(currentTile)) {
+            // The board's rotations are relative to the tile's, moves hold them from the unrotated tile
+            int rotation = (legalPlacement.getRotation() + currentTile.getRotation()) & 3;
+            Placement placement = rotation == legalPlacement.getRotation() ? legalPlacement
+                    : new Placement(legalPlacement.getCoordinates(), rotation);
+
+            if (type.getCanonicalRotation(rotation) != rotation) {
+                continue;
+            }
 
-                        possibleChildStates.add(newState);
-                    }
+            for (int k = 0; k < type.getNumberOfFeatures(); k++) {
+                if (board.canPlaceMeeple(placement, type, k, player)) {
+                    possibleMoves.add(new Move(placement.getCoordinates(), currentTile.getId(), rotation,
+                            currentPlayer, k));
+                }
+            }
 
-                    State newState = CloneManager.clone(this);
-                    Tile newTile = CloneManager.clone(newState.getCurrentTile());
-                    Coordinates newCoordinates = CloneManager.clone(coordinates);
+            possibleMoves.add(new Move(placement.getCoordinates(), currentTile.getId(), rotation, currentPlayer));
+        }
 
-                    newTile.rotateClockwise(i);
+        return possibleMoves;
+    }
 
-                    if (!newState.getBoard().placeTile(newCoordinates, newTile)) {
-                        throw new RuntimeException("Tile could not be placed to determine child.");
-                    }
+    /**
+     * Returns the state reached by making the given move from this state.
+     * 
+     * @param move The move.
+     * @return The new state, or null if the move is illegal.
+     */
+    public State createChildState(Move move) {
+        State newState = CloneManager.clone(this);
 
-                    newState.getBoard().addNewMove(new Move(newCoordinates, newTile.getId(), i, currentPlayer));
+        if (!newState.applyMove(move)) {
+            return null;
+        }
 
-                    ScoreManager.scoreClosedFeatures(newState.getBoard(), false);
+        newState.setOriginalPlayer(originalPlayer);
+        newState.popNewTile();
+        newState.setStatistics(new NodeStatistics());
 
-                    newState.setCurrentPlayer((currentPlayer + 1) % players.size());
-                    newState.setOriginalPlayer(originalPlayer);
-                    newState.setCurrentTile(
-                            (newState.getAvailableTiles().isEmpty() ? null : newState.getAvailableTiles().pop()));
+        return newState;
+    }
 
-                    possibleChildStates.add(newState);
+    /**
+     * Applies a move to the board and passes the turn to the next player. The
+     * current tile is left as it is.
+     * 
+     * @param move The move.
+     * @return True if the move was applied, false if it is illegal.
+     */
+    public boolean applyMove(Move move) {
+        long playersHash = getPlayersHash();
 
-                }
-            }
+        if (!board.applyMove(move, players)) {
+            return false;
         }
 
-        return possibleChildStates;
+        // Only the scores and meeples of the players change besides the board
+        turnHash ^= playersHash ^ getPlayersHash();
+        setCurrentPlayer((currentPlayer + 1) % players.size());
 
+        return true;
     }
 
     public void incrementVisit() {
-        visitCount++;
+        statistics.incrementVisit();
     }
 
     /**
-     * Performs a random play from this state.
+     * Performs a random play from this state on the thread's playout engine.
      * 
      * @return The score difference between the original player and the player who
      *         won.
      */
     public int randomPlay() {
-        State newState = CloneManager.clone(this);
-        Board newBoard = newState.getBoard();
-        Tile newCurrentTile = newState.getCurrentTile();
-        Stack<Tile> newAvailableTiles = newState.getAvailableTiles();
-        ArrayList<Player> newPlayers = newState.getPlayers();
-        int newCurrentPlayer = currentPlayer;
-
-        HashMap<Coordinates, HashSet<Integer>> checkedCombinations;
-        HashSet<Integer> checkedRotations;
-        newAvailableTiles.push(newCurrentTile);
-
-        while (!newAvailableTiles.empty() && currentTile != null) {
-            boolean isPlaced = false;
-            boolean playerPlacedTile = true;
-
-            newCurrentTile = newAvailableTiles.pop();
-            checkedCombinations = new HashMap<>();
-            checkedRotations = new HashSet<>();
-
-            while (!isPlaced) {
-
-                Coordinates randomCoordinates = newBoard.getPossibleCoordinates()
-                        .get(Settings.getRandomInt(newBoard.getPossibleCoordinates()
-                                .size()));
-
-                int randomRotation = Settings.getRandomInt(4);
-                newCurrentTile.rotateClockwise(randomRotation);
-
-                // Check if the tile can go in the given coordinates with the given rotation
-                isPlaced = newBoard.placeTile(randomCoordinates, newCurrentTile);
-
-                if (!isPlaced) {
-
-                    // If tile is not placed, keep a record of checked combination
-                    if (updateCheckedCombinations(checkedCombinations, checkedRotations, randomCoordinates,
-                            randomRotation, newBoard.getPossibleCoordinates().size())) {
-                        System.out.println("- - Tile not placed");
-                        isPlaced = true;
-                        playerPlacedTile = false;
-                    }
-                }
-            }
-
-            if (playerPlacedTile) {
-                Object[] filteredFeature = newCurrentTile.getFeatures().stream().toArray();
-
-                Feature randomFeature = (Feature) filteredFeature[Settings.getRandomInt(filteredFeature.length)];
-
-                while (randomFeature.getClass() == Field.class && Settings.getRandomInt(10) < 7) {
-                    randomFeature = (Feature) filteredFeature[Settings.getRandomInt(filteredFeature.length)];
-                }
-
-                // place meeple with 30% chance
-                if (Settings.getRandomInt(10) < 3) {
-                    board.placeMeeple(randomFeature, newPlayers.get(newCurrentPlayer));
-                }
-
-                currentTile.setOwner(newPlayers.get(newCurrentPlayer)); // to delete
-
-                ScoreManager.scoreClosedFeatures(newBoard, false);
-                newCurrentPlayer = (newCurrentPlayer + 1) % newPlayers.size();
-            }
-        }
+        return randomPlay(RandomManager.get());
+    }
 
-        ScoreManager.scoreOpenFeatures(newBoard, false);
+    /**
+     * Performs a random play from this state on the thread's playout engine,
+     * drawing from the given random stream.
+     * 
+     * @param random The random stream.
+     * @return The score difference between the original player and the player who
+     *         won.
+     */
+    public int randomPlay(SplittableRandom random) {
+        PlayoutEngine engine = playOut(random);
 
-        finalScoreDifference = calculateScoreDifference(newPlayers, originalPlayer);
-        this.setFinalScoreDifference(finalScoreDifference);
+        this.setFinalScoreDifference(engine.getScoreDifference(originalPlayer));
 
-        return calculateScoreDifference(newPlayers, currentPlayer);
+        return engine.getScoreDifference(currentPlayer);
     }
 
     /**
-     * Updates the checked combinations and returns true if all possible
-     * combinations have been checked.
+     * Performs a random play from this state like {@code randomPlay}, but leaves
+     * the state's statistics alone. Used by threads sharing a tree, which only
+     * merge their results into the statistics.
      * 
-     * @param checkedCombinations     A hashmap containing the checked combinations.
-     * @param checkedRotations        A hashset containing the checked rotations.
-     * @param randomCoordinates       The coordinates of the tile.
-     * @param randomRotation          The rotation of the tile.
-     * @param possibleCoordinatesSize The number of possible coordinates.
-     * @return True if all possible combinations have been checked.
+     * @param random The random stream.
+     * @return The score difference between the player to move and the player who
+     *         won.
      */
-    private boolean updateCheckedCombinations(HashMap<Coordinates, HashSet<Integer>> checkedCombinations,
-            HashSet<Integer> checkedRotations, Coordinates randomCoordinates, Integer randomRotation,
-            int possibleCoordinatesSize) {
-
-        if (!checkedCombinations.containsKey(randomCoordinates)) {
-            checkedCombinations.put(randomCoordinates, new HashSet<>());
-        }
+    public int simulatePlayout(SplittableRandom random) {
+        return playOut(random).getScoreDifference(currentPlayer);
+    }
 
-        checkedRotations = checkedCombinations.get(randomCoordinates);
-        checkedRotations.add(randomRotation);
-        checkedCombinations.put(randomCoordinates, checkedRotations);
+    // Plays out this state on the thread's playout engine and returns the engine
+    private PlayoutEngine playOut(SplittableRandom random) {
+        PlayoutEngine engine = PlayoutEngine.get();
 
-        if (checkedCombinations.size() == possibleCoordinatesSize
-                && checkedCombinations.get(randomCoordinates).size() == 4) {
-            return true;
-        }
+        engine.load(this);
+        engine.playOut(currentPlayer, random);
 
-        return false;
+        return engine;
     }
 
     /**
@@ -289,30 +245,47 @@ public class State {
     }
 
     /**
-     * Returns the number of symmetric rotations for a given tile.
+     * Returns the Zobrist hash of the state: the board's hash combined with the
+     * player to move, the current tile, the tiles left in the deck and the
+     * players' scores and meeples. The order of the deck is ignored.
      * 
-     * Used to reduce the number of possible child states by not rotating tiles that
-     * are symmetric along both axes.
+     * Like the board's, the hash is updated as the state changes rather than
+     * computed here.
      * 
-     * @param tile The tile.
-     * @return The number of symmetric rotations.
+     * @return The hash.
      */
-    private int getSymmetricRotations(Tile tile) {
-        int symmetricRotations = 4;
-        ArrayList<SideFeature> sideFeatures = tile.getSideFeatures();
-
-        if (sideFeatures.get(0) == sideFeatures.get(2)
-                && sideFeatures.get(1) == sideFeatures
-                        .get(3)
-                && sideFeatures.get(0) == sideFeatures.get(3)) {
-            symmetricRotations = 3;
-        } else if (sideFeatures.get(0) == sideFeatures.get(2)
-                && sideFeatures.get(1) == sideFeatures
-                        .get(3)) {
-            symmetricRotations = 2;
+    public long getHash() {
+        return board.getHash() ^ turnHash ^ deckHash;
+    }
+
+    // Computes the hash of everything but the board from scratch
+    private void rehash() {
+        turnHash = Zobrist.playerToMove(currentPlayer) ^ getTileHash(currentTile);
+        deckHash = 0;
+
+        if (players != null) {
+            turnHash ^= getPlayersHash();
+        }
+
+        if (availableTiles != null) {
+            for (Tile tile : availableTiles) {
+                deckHash += Zobrist.deckTile(tile.getTypeId());
+            }
+        }
+    }
+
+    private long getPlayersHash() {
+        long hash = 0;
+
+        for (int i = 0; i < players.size(); i++) {
+            hash ^= Zobrist.player(i, players.get(i).getScore(), players.get(i).getAvailableMeeples());
         }
 
-        return symmetricRotations;
+        return hash;
+    }
+
+    private static long getTileHash(Tile tile) {
+        return tile == null ? 0 : Zobrist.currentTile(tile.getTypeId());
     }
 
     public Board getBoard() {
@@ -336,6 +309,7 @@ public class State {
     }
 
     public void setCurrentPlayer(int currentPlayer) {
+        turnHash ^= Zobrist.playerToMove(this.currentPlayer) ^ Zobrist.playerToMove(currentPlayer);
         this.currentPlayer = currentPlayer;
     }
 
@@ -344,11 +318,24 @@ public class State {
     }
 
     public void setCurrentTile(Tile currentTile) {
+        turnHash ^= getTileHash(this.currentTile) ^ getTileHash(currentTile);
         this.currentTile = currentTile;
     }
 
+    /**
+     * Draws the next tile of the deck as the current tile, or sets no current
+     * tile if the deck is empty.
+     */
     public void popNewTile() {
-        this.currentTile = availableTiles.pop();
+        if (availableTiles.isEmpty()) {
+            setCurrentTile(null);
+            return;
+        }
+
+        Tile tile = availableTiles.pop();
+
+        deckHash -= Zobrist.deckTile(tile.getTypeId());
+        setCurrentTile(tile);
     }
 
     public Stack<Tile> getAvailableTiles() {
@@ -357,6 +344,7 @@ public class State {
 
     public void setAvailableTiles(Stack<Tile> availableTiles) {
         this.availableTiles = availableTiles;
+        rehash();
     }
 
     public ArrayList<Player> getPlayers() {
@@ -365,21 +353,30 @@ public class State {
 
     public void setPlayers(ArrayList<Player> players) {
         this.players = players;
+        rehash();
     }
 
     public int getVisitCount() {
-        return visitCount;
+        return statistics.getVisitCount();
     }
 
     public void setVisitCount(int visitCount) {
-        this.visitCount = visitCount;
+        statistics.setVisitCount(visitCount);
     }
 
     public int getFinalScoreDifference() {
-        return finalScoreDifference;
+        return statistics.getFinalScoreDifference();
     }
 
     public void setFinalScoreDifference(int finalScoreDifference) {
-        this.finalScoreDifference = finalScoreDifference;
+        statistics.setFinalScoreDifference(finalScoreDifference);
+    }
+
+    public NodeStatistics getStatistics() {
+        return statistics;
+    }
+
+    public void setStatistics(NodeStatistics statistics) {
+        this.statistics = statistics;
     }
 }
\ No newline at end of file
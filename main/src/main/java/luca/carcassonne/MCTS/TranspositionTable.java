@@ -0,0 +1,107 @@
+package luca.carcassonne.mcts;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import luca.carcassonne.Zobrist;
+
+/**
+ * A bounded table of search statistics, keyed by the hash of a state and of the
+ * player searching it.
+ *
+ * States reached through different move orders get the same statistics, so
+ * what is learnt about a position is shared between all its nodes. Once the
+ * table is full the least recently used entry is evicted; nodes already holding
+ * it keep their statistics, they just stop being shared.
+ *
+ * The table is split into segments by key, each an LRU map with its own lock
+ * and an even share of the capacity, so that threads searching in parallel
+ * rarely wait on each other. Eviction is therefore only least recently used
+ * within a segment. Small tables keep a single segment and an exact LRU.
+ *
+ * @author Luca Brown
+ */
+public class TranspositionTable {
+    private static final int MAX_SEGMENTS = 32;
+    // The least capacity worth giving a segment of its own
+    private static final int MIN_SEGMENT_CAPACITY = 64;
+
+    private final int capacity;
+    private final Segment[] segments;
+
+    public TranspositionTable(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Invalid transposition table capacity: " + capacity);
+        }
+
+        int nSegments = 1;
+
+        // A power of two, so that a segment is picked by masking the key
+        while (nSegments * 2 <= MAX_SEGMENTS && nSegments * 2 * MIN_SEGMENT_CAPACITY <= capacity) {
+            nSegments *= 2;
+        }
+
+        this.capacity = capacity;
+        this.segments = new Segment[nSegments];
+
+        for (int i = 0; i < nSegments; i++) {
+            segments[i] = new Segment(capacity / nSegments + (i < capacity % nSegments ? 1 : 0));
+        }
+    }
+
+    /**
+     * Returns the statistics of the given state, adding new ones if the state
+     * isn't in the table.
+     *
+     * @param state The state.
+     * @return The statistics shared by every state equal to the given one.
+     */
+    public NodeStatistics get(State state) {
+        long key = state.getHash() ^ Zobrist.searchingPlayer(state.getOriginalPlayer());
+        // The high bits, as the segments' maps bucket by the low ones
+        Segment segment = segments[(int) (key >>> 32) & (segments.length - 1)];
+
+        synchronized (segment) {
+            return segment.computeIfAbsent(key, k -> new NodeStatistics());
+        }
+    }
+
+    public int size() {
+        int size = 0;
+
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+
+        return size;
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    // An LRU map holding at most its share of the table's capacity
+    private static class Segment extends LinkedHashMap<Long, NodeStatistics> {
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, NodeStatistics> eldest) {
+            return size() > capacity;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package luca.carcassonne;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Hands out the random number generators used by games and searches.
+ *
+ * Every thread draws from its own {@code SplittableRandom}, so parallel games
+ * and search workers never contend for a generator. A game seeds its thread's
+ * stream with a seed derived from {@code Settings.GLOBAL_SEED} and its index,
+ * and the threads it starts get streams split from it. The same master seed
+ * then gives the same games, however many games run in parallel.
+ *
+ * @author Luca Brown
+ */
+public class RandomManager {
+    private static final long GAME_SEED_STEP = 0x9E3779B97F4A7C15L;
+    // Threads that were never seeded get an arbitrary stream
+    private static final ThreadLocal<SplittableRandom> random = ThreadLocal.withInitial(SplittableRandom::new);
+
+    /**
+     * Returns the generator of the current thread.
+     *
+     * @return The generator.
+     */
+    public static SplittableRandom get() {
+        return random.get();
+    }
+
+    public static void set(SplittableRandom generator) {
+        random.set(generator);
+    }
+
+    /**
+     * Restarts the current thread's stream from the given seed.
+     *
+     * @param seed The seed.
+     */
+    public static void setSeed(long seed) {
+        random.set(new SplittableRandom(seed));
+    }
+
+    /**
+     * Returns a new stream split from the current thread's, to be handed to
+     * another thread. Splitting advances the current stream, so the streams
+     * handed out are always the same for the same seed.
+     *
+     * @return The new stream.
+     */
+    public static SplittableRandom split() {
+        return random.get().split();
+    }
+
+    /**
+     * Returns the seed of a game of a run, derived from the master seed.
+     *
+     * @param game The index of the game in the run.
+     * @return The seed of the game.
+     */
+    public static long getGameSeed(int game) {
+        return new SplittableRandom(Settings.GLOBAL_SEED + game * GAME_SEED_STEP).nextLong();
+    }
+
+    public static int nextInt(int bound) {
+        return random.get().nextInt(bound);
+    }
+
+    /**
+     * Returns a float between 0 (inclusive) and 1 (exclusive), with the 24 bits
+     * of precision of {@code Random.nextFloat()}.
+     *
+     * @return The float.
+     */
+    public static float nextFloat() {
+        return (random.get().nextInt() >>> 8) * 0x1.0p-24f;
+    }
+
+    /**
+     * Shuffles a list with the current thread's stream.
+     *
+     * @param list The list to shuffle.
+     */
+    public static void shuffle(List<?> list) {
+        SplittableRandom generator = random.get();
+
+        for (int i = list.size() - 1; i > 0; i--) {
+            Collections.swap(list, i, generator.nextInt(i + 1));
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package luca.carcassonne;
+
+/**
+ * Keeps the count, mean, variance, range and histogram of a stream of values
+ * without storing the values.
+ *
+ * The mean and variance are updated with Welford's method, and two instances
+ * are combined with Chan's formula, so statistics gathered separately can be
+ * merged at the end. The histogram has {@code bins} bins of
+ * {@code binWidth} starting at {@code lowest}; values outside it are counted
+ * in the first or last bin.
+ *
+ * Not thread-safe: each thread should keep its own and merge them once done.
+ *
+ * @author Luca Brown
+ */
+public class RunningStatistics {
+    private final int lowest;
+    private final int binWidth;
+    private final long[] histogram;
+
+    private long count = 0;
+    private double mean = 0;
+    // Sum of the squared distances from the mean
+    private double m2 = 0;
+    private int min = Integer.MAX_VALUE;
+    private int max = Integer.MIN_VALUE;
+
+    public RunningStatistics(int lowest, int binWidth, int bins) {
+        this.lowest = lowest;
+        this.binWidth = binWidth;
+        this.histogram = new long[bins];
+    }
+
+    public void add(int value) {
+        double delta = value - mean;
+
+        count++;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        histogram[getBin(value)]++;
+    }
+
+    /**
+     * Adds the values of another instance with the same bins to this one.
+     *
+     * @param other The statistics to merge in.
+     */
+    public void merge(RunningStatistics other) {
+        if (other.histogram.length != histogram.length || other.lowest != lowest || other.binWidth != binWidth) {
+            throw new IllegalArgumentException("Cannot merge statistics with different bins");
+        }
+
+        if (other.count == 0) {
+            return;
+        }
+
+        long total = count + other.count;
+        double delta = other.mean - mean;
+
+        mean += delta * other.count / total;
+        m2 += other.m2 + delta * delta * count * other.count / total;
+        count = total;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] += other.histogram[i];
+        }
+    }
+
+    public int getBin(int value) {
+        return Math.max(0, Math.min(histogram.length - 1, Math.floorDiv(value - lowest, binWidth)));
+    }
+
+    /**
+     * Returns the smallest value that falls in a bin, ignoring the clamping of
+     * the first bin.
+     *
+     * @param bin The bin.
+     * @return The lower bound of the bin.
+     */
+    public int getBinStart(int bin) {
+        return lowest + bin * binWidth;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * Returns the population variance of the values, 0 if there are none.
+     *
+     * @return The variance.
+     */
+    public double getVariance() {
+        return count == 0 ? 0 : m2 / count;
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    public double getStandardError() {
+        return count == 0 ? 0 : getStandardDeviation() / Math.sqrt(count);
+    }
+
+    public int getMin() {
+        return min;
+    }
+
+    public int getMax() {
+        return max;
+    }
+
+    public long[] getHistogram() {
+        return histogram.clone();
+    }
+}
@@ -23,6 +23,8 @@ import luca.carcassonne.tile.feature.Field;
  * @author Luca Brown
  */
 public class ScoreManager {
+    // Prints the scores when a print flag is set
+    private static final GameListener CONSOLE = new ConsoleGameListener();
 
     /**
      * Scores all of a board's closed features.
@@ -31,6 +33,22 @@ public class ScoreManager {
      * @param print Whether or not to print the scores.
      */
     public static void scoreClosedFeatures(Board board, boolean print) {
+        scoreClosedFeatures(board, print ? CONSOLE : null);
+    }
+
+    /**
+     * Scores all of a board's closed features, reporting each score to the
+     * listener.
+     * 
+     * @param board    The board that contains the features to be scored.
+     * @param listener The listener told about each score, or null.
+     */
+    public static void scoreClosedFeatures(Board board, GameListener listener) {
+        if (board.getFeatureTracker() != null) {
+            scoreClosedTrackedFeatures(board, listener);
+            return;
+        }
+
         if (board.getNewlyClosedFeatures().isEmpty()) {
             return;
         }
@@ -53,11 +71,11 @@ public class ScoreManager {
             for (Player owner : owners) {
                 owner.addScore(score);
             }
-            if (print) {
-                System.out.println("Scored " + score + " points for " + owners.get(0).getColour() + " for a "
-                        + feature.vertexSet().size() + " tile "
-                        + feature.vertexSet().iterator().next().getClass().getSimpleName() + " ( "
-                        + board.getTileFromFeature(feature.vertexSet().iterator().next()) + " )");
+            if (listener != null) {
+                Feature vertex = feature.vertexSet().iterator().next();
+
+                listener.featureScored(owners, score, vertex, feature.vertexSet().size(),
+                        board.getTileFromFeature(vertex));
             }
         }
 
@@ -71,6 +89,22 @@ public class ScoreManager {
      * @param print Whether or not to print the scores.
      */
     public static void scoreOpenFeatures(Board board, boolean print) {
+        scoreOpenFeatures(board, print ? CONSOLE : null);
+    }
+
+    /**
+     * Scores all of a board's open features, reporting each score to the
+     * listener.
+     * 
+     * @param board    The board that contains the features to be scored.
+     * @param listener The listener told about each score, or null.
+     */
+    public static void scoreOpenFeatures(Board board, GameListener listener) {
+        if (board.getFeatureTracker() != null) {
+            scoreOpenTrackedFeatures(board, listener);
+            return;
+        }
+
         if (board.getOpenFeatures().isEmpty()) {
             return;
         }
@@ -91,11 +125,80 @@ public class ScoreManager {
                 owner.addScore(score);
             }
 
-            if (print) {
-                System.out.println("Scored " + score + " points for " + owners.iterator().next().getColour() + " for a "
-                        + feature.vertexSet().size() + " tile "
-                        + feature.vertexSet().iterator().next().getClass().getSimpleName() + " ( "
-                        + board.getTileFromFeature(feature.vertexSet().iterator().next()) + " )");
+            if (listener != null) {
+                Feature vertex = feature.vertexSet().iterator().next();
+
+                listener.featureScored(new ArrayList<>(owners), score, vertex, feature.vertexSet().size(),
+                        board.getTileFromFeature(vertex));
+            }
+        }
+    }
+
+    /**
+     * Scores all of a board's closed features using the board's feature tracker.
+     * 
+     * @param board    The board that contains the features to be scored.
+     * @param listener The listener told about each score, or null.
+     */
+    private static void scoreClosedTrackedFeatures(Board board, GameListener listener) {
+        FeatureTracker tracker = board.getFeatureTracker();
+
+        if (tracker.getNewlyClosed().isEmpty()) {
+            return;
+        }
+
+        for (int root : tracker.getNewlyClosed()) {
+            Feature feature = tracker.getFeature(root);
+
+            if (feature.getClass() == Field.class || tracker.getMeeples(root) == 0) {
+                continue;
+            }
+
+            List<Player> owners = getFeatureOwners(tracker.getPlayersOnFeature(root));
+            int score = calculateTrackedFeatureValue(board, root, true);
+
+            for (Player owner : owners) {
+                owner.addScore(score);
+            }
+
+            if (listener != null) {
+                listener.featureScored(owners, score, feature, tracker.getSize(root), board.getTileFromFeature(feature));
+            }
+        }
+
+        tracker.getNewlyClosed().clear();
+    }
+
+    /**
+     * Scores all of a board's open features using the board's feature tracker.
+     * 
+     * @param board    The board that contains the features to be scored.
+     * @param listener The listener told about each score, or null.
+     */
+    private static void scoreOpenTrackedFeatures(Board board, GameListener listener) {
+        FeatureTracker tracker = board.getFeatureTracker();
+
+        for (int root : tracker.getOpenRoots()) {
+            if (tracker.getMeeples(root) == 0) {
+                continue;
+            }
+
+            Set<Player> owners = tracker.getPlayersOnFeature(root).keySet();
+            int score = calculateTrackedFeatureValue(board, root, false);
+
+            if (score == 0) {
+                continue;
+            }
+
+            for (Player owner : owners) {
+                owner.addScore(score);
+            }
+
+            if (listener != null) {
+                Feature feature = tracker.getFeature(root);
+
+                listener.featureScored(new ArrayList<>(owners), score, feature, tracker.getSize(root),
+                        board.getTileFromFeature(feature));
             }
         }
     }
@@ -107,12 +210,21 @@ public class ScoreManager {
      * @return A list of players who own the feature
      */
     private static List<Player> getFeatureOwners(SimpleGraph<Feature, DefaultEdge> feature) {
+        return getFeatureOwners(getPlayersOnFeature(feature));
+    }
+
+    /**
+     * Returns a list of players who own the feature, giving back the meeples of
+     * every player on it.
+     * 
+     * @param players A map of players and the number of meeples they have on the
+     *                feature
+     * @return A list of players who own the feature
+     */
+    private static List<Player> getFeatureOwners(HashMap<Player, Integer> players) {
         ArrayList<Player> owners = new ArrayList<>();
-        HashMap<Player, Integer> players = new HashMap<>();
         int maxMeeples = 0;
 
-        players = getPlayersOnFeature(feature);
-
         // Find the player(s) with the most meeples on the feature
         if (!players.isEmpty()) {
             int nMeeples = 0;
@@ -205,6 +317,57 @@ public class ScoreManager {
         return score;
     }
 
+    /**
+     * Calculates the value of a set in the board's feature tracker.
+     * 
+     * @param board    The board that contains the feature.
+     * @param root     The root of the set to be scored.
+     * @param isClosed Whether or not the feature is closed.
+     * @return The value of the feature.
+     */
+    private static int calculateTrackedFeatureValue(Board board, int root, boolean isClosed) {
+        FeatureTracker tracker = board.getFeatureTracker();
+        Feature feature = tracker.getFeature(root);
+        Class<?> featureClass = feature.getClass();
+        int score = 0;
+
+        if (featureClass == Road.class) {
+            score += tracker.getTileCount(root);
+        } else if (featureClass == Castle.class) {
+            if (isClosed) {
+                score += tracker.getTileCount(root) * Settings.CASTLE_POINTS_CLOSED
+                        + tracker.getShields(root) * Settings.SHIELD_POINTS_CLOSED;
+            } else {
+                score += tracker.getTileCount(root) * Settings.CASTLE_POINTS_OPEN
+                        + tracker.getShields(root) * Settings.SHIELD_POINTS_OPEN;
+            }
+        } else if (featureClass == Field.class) {
+            HashSet<Integer> adjacentCastles = new HashSet<>();
+
+            for (Feature vertex : tracker.getFeatures(root)) {
+                for (Castle castle : ((Field) vertex).getAdjacentCastles()) {
+                    int castleRoot = tracker.find(castle);
+
+                    if (castleRoot >= 0 && tracker.isClosed(castleRoot)) {
+                        adjacentCastles.add(castleRoot);
+                    }
+                }
+            }
+
+            score += Settings.FIELD_POINTS_PER_CASTLE * adjacentCastles.size();
+        } else if (featureClass == Monastery.class) {
+            if (isClosed) {
+                score += 9;
+            } else {
+                score += 1 + board.getSurroundingTiles(board.getTileFromFeature(feature));
+            }
+        } else {
+            throw new IllegalArgumentException("Feature class not recognized");
+        }
+
+        return score;
+    }
+
     /**
      * Calculates the value of a field.
      * 
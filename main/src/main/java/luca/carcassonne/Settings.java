@@ -1,12 +1,12 @@
 package luca.carcassonne;
 
 import java.util.ArrayList;
-import java.util.Random;
 import java.util.Stack;
 
 import luca.carcassonne.tile.CardinalPoint;
 import luca.carcassonne.tile.SideFeature;
 import luca.carcassonne.tile.Tile;
+import luca.carcassonne.tile.TileType;
 import luca.carcassonne.tile.feature.Castle;
 import luca.carcassonne.tile.feature.Field;
 import luca.carcassonne.tile.feature.Monastery;
@@ -31,6 +31,10 @@ public class Settings {
     public static final int FIELD_POINTS_PER_CASTLE = 3;
     public static final int MONASTERY_POINTS_PER_TILE = 1;
 
+    // The engine used by the game's boards to keep track of connected features.
+    // Only UNION_FIND boards support undoing moves.
+    public static final FeatureEngine FEATURE_ENGINE = FeatureEngine.UNION_FIND;
+
     // Tile number constants
     private static final int N_MONASTERY = 4;
     private static final int N_MONASTERY_WITH_ROAD = 2;
@@ -57,20 +61,15 @@ public class Settings {
     private static final int N_BIG_CASTLE_WITH_SHIELD_WITH_ROAD = 2;
     private static final int N_HUGE_CASTLE = 1;
 
-    // The global seed for the random number generator.
-    private static final int GLOBAL_SEED = 4443;
-    private static final Random random = new Random();
+    // The master seed of a run, every game's seed is derived from it. See RandomManager.
+    public static final long GLOBAL_SEED = 4443;
 
     public static float getRandomFloat() {
-        return random.nextFloat();
+        return RandomManager.nextFloat();
     }
 
     public static int getRandomInt(int max) {
-        return random.nextInt(max);
-    }
-
-    public static Random getRandom() {
-        return random;
+        return RandomManager.nextInt(max);
     }
 
     // [FIELD, FIELD, FIELD, FIELD]
@@ -1147,7 +1146,24 @@ public class Settings {
         };
     }
 
+    /**
+     * Returns a new, unrotated tile with the given id.
+     * 
+     * @param id The id of the tile, e.g. "Curvy road".
+     * @return The new tile.
+     */
     public static Tile getTileFromId(String id) {
+        return TileType.get(id).createTile();
+    }
+
+    /**
+     * Builds a tile from its definition. Only used to build the
+     * {@code TileType} catalog, use {@code getTileFromId} instead.
+     * 
+     * @param id The id of the tile.
+     * @return The new tile.
+     */
+    public static Tile getTileDefinition(String id) {
         switch (id) {
             case "Monastery":
                 return getMonastery();
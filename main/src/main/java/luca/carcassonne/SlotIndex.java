@@ -0,0 +1,144 @@
+package luca.carcassonne;
+
+import luca.carcassonne.tile.Coordinates;
+
+/**
+ * The indexes of the frontier's slots, by coordinates.
+ *
+ * An open-addressing hash table like {@code TileIndex}, keyed by the same
+ * packed coordinates but holding plain int indexes, so the frontier neither
+ * hashes a {@code Coordinates} nor boxes an {@code Integer} on each lookup.
+ * Removing a slot shifts the entries after it back instead of leaving a
+ * tombstone, as slots come and go on every move.
+ *
+ * @author Luca Brown
+ */
+class SlotIndex {
+    // A power of two, enough for a whole game's frontier without growing
+    private static final int INITIAL_CAPACITY = 128;
+
+    private long[] keys;
+    // The index plus one, so that 0 marks an empty slot
+    private int[] values;
+    private int mask;
+    private int size;
+
+    SlotIndex() {
+        keys = new long[INITIAL_CAPACITY];
+        values = new int[INITIAL_CAPACITY];
+        mask = INITIAL_CAPACITY - 1;
+    }
+
+    /**
+     * Returns the index at the given coordinates.
+     *
+     * @param coordinates The coordinates.
+     * @return The index, or -1 if there is none.
+     */
+    int get(Coordinates coordinates) {
+        long key = TileIndex.getKey(coordinates.getX(), coordinates.getY());
+
+        for (int i = getSlot(key); values[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return values[i] - 1;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Puts an index at the given coordinates, replacing the index there if any.
+     *
+     * @param coordinates The coordinates.
+     * @param index       The index, at least 0.
+     */
+    void put(Coordinates coordinates, int index) {
+        if (2 * (size + 1) > values.length) {
+            grow();
+        }
+
+        long key = TileIndex.getKey(coordinates.getX(), coordinates.getY());
+        int i = getSlot(key);
+
+        while (values[i] != 0) {
+            if (keys[i] == key) {
+                values[i] = index + 1;
+                return;
+            }
+
+            i = (i + 1) & mask;
+        }
+
+        keys[i] = key;
+        values[i] = index + 1;
+        size++;
+    }
+
+    /**
+     * Removes the index at the given coordinates.
+     *
+     * @param coordinates The coordinates.
+     * @return The index removed, or -1 if there was none.
+     */
+    int remove(Coordinates coordinates) {
+        long key = TileIndex.getKey(coordinates.getX(), coordinates.getY());
+        int hole = getSlot(key);
+
+        while (values[hole] != 0 && keys[hole] != key) {
+            hole = (hole + 1) & mask;
+        }
+
+        if (values[hole] == 0) {
+            return -1;
+        }
+
+        int index = values[hole] - 1;
+
+        // Moves back every entry of the run that would no longer be found past the hole
+        for (int i = (hole + 1) & mask; values[i] != 0; i = (i + 1) & mask) {
+            int slot = getSlot(keys[i]);
+
+            if (((i - slot) & mask) >= ((i - hole) & mask)) {
+                keys[hole] = keys[i];
+                values[hole] = values[i];
+                hole = i;
+            }
+        }
+
+        values[hole] = 0;
+        size--;
+
+        return index;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private int getSlot(long key) {
+        return TileIndex.spread(key) & mask;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldValues.length * 2];
+        mask = values.length - 1;
+
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != 0) {
+                int slot = getSlot(oldKeys[i]);
+
+                while (values[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package luca.carcassonne;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Stack;
+
+import luca.carcassonne.mcts.Move;
+import luca.carcassonne.mcts.State;
+import luca.carcassonne.player.Colour;
+import luca.carcassonne.player.Player;
+import luca.carcassonne.tile.Coordinates;
+import luca.carcassonne.tile.Tile;
+import luca.carcassonne.tile.TileType;
+
+/**
+ * A compact binary encoding of a {@code State}, used to copy states and to
+ * store them on disk, e.g. for checkpoints and self-play datasets.
+ *
+ * A snapshot holds, in this order:
+ * <ul>
+ * <li>the format version and the board's feature engine;</li>
+ * <li>each player's colour, score and available meeples;</li>
+ * <li>the player to move and the original player;</li>
+ * <li>the starting tile's type and rotation;</li>
+ * <li>each move as its tile type, rotation, x, y, player and the feature
+ * holding its meeple (-1 if none), 6 bytes each;</li>
+ * <li>the current tile's type (-1 if none) and rotation;</li>
+ * <li>the types of the tiles left, bottom of the deck first.</li>
+ * </ul>
+ *
+ * A whole game fits in under 600 bytes. Decoding builds the board directly
+ * from the moves: tiles are placed without legality checks, meeples without
+ * claim checks and nothing is scored, since the scores and meeples are read
+ * from the snapshot. Only tiles of the {@code TileType} catalog can be
+ * encoded.
+ *
+ * @author Luca Brown
+ */
+public class StateSnapshot {
+    public static final int VERSION = 1;
+
+    /**
+     * Returns a copy of a state made through its snapshot. Like
+     * {@code CloneManager.clone(State)}, the copy has plain players and keeps the
+     * visit count and final score difference of the state.
+     *
+     * @param state The state to copy.
+     * @return The copy.
+     */
+    public static State copy(State state) {
+        State newState = decode(encode(state));
+
+        newState.setVisitCount(state.getVisitCount());
+        newState.setFinalScoreDifference(state.getFinalScoreDifference());
+
+        return newState;
+    }
+
+    public static byte[] encode(State state) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+
+        try {
+            write(state, new DataOutputStream(bytes));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    public static State decode(byte[] snapshot) {
+        try {
+            return read(new DataInputStream(new ByteArrayInputStream(snapshot)));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed snapshot", e);
+        }
+    }
+
+    /**
+     * Writes the snapshot of a state.
+     *
+     * @param state The state to write.
+     * @param out   Where to write it.
+     * @throws IOException If the output can't be written to.
+     */
+    public static void write(State state, DataOutput out) throws IOException {
+        Board board = state.getBoard();
+        List<Player> players = state.getPlayers();
+        List<Move> moves = board.getPastMoves();
+        Tile startingTile = board.getStartingTile();
+
+        out.writeByte(VERSION);
+        out.writeByte(board.getFeatureEngine().ordinal());
+        out.writeByte(players.size());
+
+        for (Player player : players) {
+            out.writeByte(player.getColour() == null ? -1 : player.getColour().ordinal());
+            out.writeShort(player.getScore());
+            out.writeByte(player.getAvailableMeeples());
+        }
+
+        out.writeByte(state.getCurrentPlayer());
+        out.writeByte(state.getOriginalPlayer());
+        out.writeByte(getTypeId(startingTile));
+        out.writeByte(startingTile.getRotation());
+        out.writeShort(moves.size());
+
+        for (Move move : moves) {
+            out.writeByte(move.getTileTypeId());
+            out.writeByte(move.getRotation());
+            out.writeByte(move.getCoordinates().getX());
+            out.writeByte(move.getCoordinates().getY());
+            out.writeByte(move.getPlayerIndex());
+            out.writeByte(move.getFeatureIndex());
+        }
+
+        Tile currentTile = state.getCurrentTile();
+
+        out.writeByte(currentTile == null ? -1 : getTypeId(currentTile));
+        out.writeByte(currentTile == null ? 0 : currentTile.getRotation());
+        out.writeShort(state.getAvailableTiles().size());
+
+        for (Tile tile : state.getAvailableTiles()) {
+            out.writeByte(getTypeId(tile));
+        }
+    }
+
+    /**
+     * Reads a state from its snapshot.
+     *
+     * @param in Where to read the snapshot from.
+     * @return The state, with plain players.
+     * @throws IOException If the input can't be read or isn't a snapshot of this
+     *                     version.
+     */
+    public static State read(DataInput in) throws IOException {
+        int version = in.readByte();
+
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version: " + version);
+        }
+
+        FeatureEngine featureEngine = FeatureEngine.values()[in.readByte()];
+        int nPlayers = in.readByte();
+        ArrayList<Player> players = new ArrayList<>(nPlayers);
+
+        for (int i = 0; i < nPlayers; i++) {
+            int colour = in.readByte();
+            Player player = colour < 0 ? new Player() : new Player(Colour.values()[colour]);
+
+            player.setScore(in.readShort());
+            player.setAvailableMeeples(in.readByte());
+            players.add(player);
+        }
+
+        int currentPlayer = in.readByte();
+        int originalPlayer = in.readByte();
+        Tile startingTile = readTile(in);
+        Board board = new Board(startingTile, featureEngine);
+        int nMoves = in.readShort();
+
+        for (int i = 0; i < nMoves; i++) {
+            TileType type = TileType.get(in.readByte());
+            int rotation = in.readByte();
+            Coordinates coordinates = new Coordinates(in.readByte(), in.readByte());
+            int playerIndex = in.readByte();
+            Move move = new Move(coordinates, type.getName(), rotation, playerIndex, in.readByte());
+
+            board.loadMove(move, type.createTile(rotation), players.get(playerIndex));
+        }
+
+        board.finishLoading();
+
+        Tile currentTile = readTile(in);
+        int nTiles = in.readShort();
+        Stack<Tile> availableTiles = new Stack<>();
+
+        for (int i = 0; i < nTiles; i++) {
+            availableTiles.push(TileType.get(in.readByte()).createTile());
+        }
+
+        State state = new State(board, originalPlayer, currentTile, players, availableTiles);
+
+        state.setCurrentPlayer(currentPlayer);
+
+        return state;
+    }
+
+    // Reads a tile's type and rotation, null if the type is -1
+    private static Tile readTile(DataInput in) throws IOException {
+        int typeId = in.readByte();
+        int rotation = in.readByte();
+
+        return typeId < 0 ? null : TileType.get(typeId).createTile(rotation);
+    }
+
+    private static int getTypeId(Tile tile) {
+        int typeId = tile.getTypeId();
+
+        if (typeId < 0) {
+            throw new IllegalArgumentException("Only tiles of the catalog can be encoded: " + tile.getId());
+        }
+
+        return typeId;
+    }
+}
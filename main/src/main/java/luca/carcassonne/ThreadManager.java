@@ -1,13 +1,16 @@
 package luca.carcassonne;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.Arrays;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
+import luca.carcassonne.mcts.ActionStatistics;
+
 /**
  * This class is used to run multiple games in parallel.
  * 
@@ -17,100 +20,114 @@ import java.util.stream.Collectors;
  * It is recommended to set {@code times} to be multiple of
  * {@code numberOfThreads}.
  * 
- * The results of all the games are stored in the static variables of this
- * class.
+ * The results of all the games are gathered in {@code statistics}. The
+ * progressive history agents of all the games share {@code actionStatistics},
+ * loaded from the bundled csv files and updated as each game ends.
  * 
  * The results are printed to the console after all the games are finished.
+ * Unless {@code headless} is false, the games themselves print nothing.
+ * If {@code recordGames} is true, the moves and results of every game are
+ * written to compressed files by a {@code GameRecordWriter}.
  * 
  * @author Luca Brown
  */
 public class ThreadManager {
     public static ExecutorService pool;
-    public static List<Integer> playersTotalScore = Collections
-            .synchronizedList(new ArrayList<Integer>());
-    public static List<Integer> playersWR = Collections
-            .synchronizedList(new ArrayList<Integer>());
-    public static List<Integer> playersMaxScore = Collections
-            .synchronizedList(new ArrayList<Integer>());
-    public static List<Integer> playersMinScore = Collections
-            .synchronizedList(new ArrayList<Integer>());
-    public static List<Integer> scoreDelta = Collections
-            .synchronizedList(new ArrayList<Integer>());
-    public static List<Integer> ties = Collections
-            .synchronizedList(new ArrayList<Integer>());
-    public static List<Integer> timeForMove = Collections
-            .synchronizedList(new ArrayList<Integer>(Collections.nCopies(71, 0)));
+    public static TournamentStatistics statistics;
+    public static ActionStatistics actionStatistics;
     static int numberOfThreads = 1;
     static float times = 1;
+    static boolean headless = true;
+    // Writes the record of every game to records/<start time>/ when true
+    static boolean recordGames = false;
+    static int gamesPerRecordFile = 10000;
 
     /**
      * Runs the games.
      * 
      * @param args Command line arguments.
      */
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         long currentTime = System.currentTimeMillis();
         ArrayList<Game> games = new ArrayList<>();
         pool = Executors.newFixedThreadPool(numberOfThreads);
 
-        for (int i = 0; i < times; i++) {
-            games.add(new Game(new Board(Settings.getSingleCastleWithStraightRoad())));
-        }
+        // Closed whatever happens, so its thread doesn't keep the JVM alive
+        try (GameRecordWriter recordWriter = recordGames
+                ? new GameRecordWriter(Path.of("records", Long.toString(currentTime)), gamesPerRecordFile)
+                : null) {
+            actionStatistics = ActionStatistics.readFromData(Game.TOTAL_MOVES_FILE, Game.WINNING_MOVES_FILE);
 
-        for (int i = 0; i < games.get(0).getNumberOfPlayers(); i++) {
-            playersTotalScore.add(0);
-            playersWR.add(0);
-            playersMaxScore.add(0);
-            playersMinScore.add(100);
-            ties.add(0);
-        }
+            for (int i = 0; i < times; i++) {
+                games.add(new Game(new Board(Settings.getSingleCastleWithStraightRoad(), Settings.FEATURE_ENGINE),
+                        RandomManager.getGameSeed(i), actionStatistics));
+            }
 
-        for (Game game : games) {
-            pool.execute(game);
-        }
+            statistics = new TournamentStatistics(games.get(0).getNumberOfPlayers());
 
-        pool.shutdown();
+            for (Game game : games) {
+                if (!headless) {
+                    game.addListener(new ConsoleGameListener());
+                }
 
-        try {
-            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
-            ArrayList<String> players = (new Game(new Board(Settings.getSingleCastleWithStraightRoad()))).getPlayers()
-                    .stream().map(p -> p.getClass().getSimpleName()).collect(Collectors.toCollection(ArrayList::new));
+                game.addListener(statistics);
+                game.addListener(actionStatistics);
 
-            // calculate standard deviation of score delta
-            float mean = scoreDelta.stream().mapToInt(Integer::intValue).sum() / scoreDelta.size();
-            float sum = 0;
-            for (int i = 0; i < scoreDelta.size(); i++) {
-                sum += Math.pow(scoreDelta.get(i) - mean, 2);
-            }
-            float standardDeviation = (float) Math.sqrt(sum / scoreDelta.size());
-            // calculate confidence interval
-            float confidenceInterval = 1.96f * standardDeviation / (float) Math.sqrt(scoreDelta.size());
-            // calculate standard error
-            float standardError = standardDeviation / (float) Math.sqrt(scoreDelta.size());
-
-            System.out.println("\nAfter " + times + " games:");
-            for (int i = 0; i < playersWR.size(); i++) {
-                System.out.println(players.get(i) + " won " + ((float) playersWR.get(i)) / times * 100
-                        + "% of games (+" + (float) ties.get(i) + " tie(s)) " + "with an average score of "
-                        + (float) playersTotalScore.get(i) / times
-                        + " (range: " + playersMaxScore.get(i) + "-" + playersMinScore.get(i) + ")");
+                if (recordWriter != null) {
+                    game.addListener(recordWriter);
+                }
 
+                pool.execute(game);
             }
-            // System.out.println("Ties: " + (float) ties.get() / times * 100 + "%");
-            System.out.println("Time: " + (System.currentTimeMillis() - currentTime) / 1000 + "s");
-            System.out.println("Mean: " + mean);
-            System.out.println("Standard deviation: " + standardDeviation);
-            System.out.println("Standard error: " + standardError);
-            System.out.println("Confidence interval: ±" + confidenceInterval);
-
-            for (int i = 0; i < timeForMove.size(); i++) {
-                // divide each element by the number og games
-                timeForMove.set(i, timeForMove.get(i) / (int) times);
-            }
 
-        } catch (InterruptedException e) {
-            e.printStackTrace();
+            pool.shutdown();
+
+            try {
+                pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+                ArrayList<String> players = games.get(0).getPlayers().stream().map(p -> p.getClass().getSimpleName())
+                        .collect(Collectors.toCollection(ArrayList::new));
+                RunningStatistics scoreDelta = statistics.getScoreDeltaStatistics();
+                // 95% confidence interval of the mean score delta
+                double confidenceInterval = 1.96 * scoreDelta.getStandardError();
+
+                System.out.println("\nAfter " + times + " games:");
+                for (int i = 0; i < statistics.getNumberOfPlayers(); i++) {
+                    RunningStatistics scores = statistics.getScoreStatistics(i);
+
+                    System.out.println(players.get(i) + " won " + statistics.getWins(i) / times * 100
+                            + "% of games (+" + (float) statistics.getTies(i) + " tie(s)) "
+                            + "with an average score of " + (float) statistics.getAverageScore(i)
+                            + " (range: " + scores.getMax() + "-" + scores.getMin() + ", standard deviation: "
+                            + (float) scores.getStandardDeviation() + ")");
+                }
+                System.out.println("Time: " + (System.currentTimeMillis() - currentTime) / 1000 + "s");
+                System.out.println("Mean: " + (float) scoreDelta.getMean());
+                System.out.println("Standard deviation: " + (float) scoreDelta.getStandardDeviation());
+                System.out.println("Standard error: " + (float) scoreDelta.getStandardError());
+                System.out.println("Confidence interval: ±" + (float) confidenceInterval);
+                printHistogram(scoreDelta);
+
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
         }
+    }
 
+    /**
+     * Prints a histogram of the score deltas, one line per non-empty bin.
+     *
+     * @param scoreDelta The score delta statistics.
+     */
+    private static void printHistogram(RunningStatistics scoreDelta) {
+        long[] histogram = scoreDelta.getHistogram();
+        long highest = Math.max(1, Arrays.stream(histogram).max().getAsLong());
+
+        System.out.println("Score delta distribution:");
+        for (int i = 0; i < histogram.length; i++) {
+            if (histogram[i] > 0) {
+                System.out.println(String.format("%5d %6d ", scoreDelta.getBinStart(i), histogram[i])
+                        + "#".repeat((int) (histogram[i] * 50 / highest)));
+            }
+        }
     }
 }
@@ -0,0 +1,159 @@
+package luca.carcassonne;
+
+import luca.carcassonne.tile.Coordinates;
+import luca.carcassonne.tile.Tile;
+
+/**
+ * The placed tiles of a board, indexed by their coordinates.
+ *
+ * An open-addressing hash table keyed by the coordinates packed into a long,
+ * with linear probing. Looking up a tile by its x and y allocates nothing and
+ * neither boxes nor hashes a {@code Coordinates}, which matters for the
+ * neighbour lookups done on every move. Removing a tile shifts the entries
+ * after it back instead of leaving a tombstone, since undoing moves removes
+ * tiles as often as it places them.
+ *
+ * @author Luca Brown
+ */
+class TileIndex {
+    // A power of two, enough for a whole game without growing
+    private static final int INITIAL_CAPACITY = 256;
+
+    private long[] keys;
+    // Null where a slot is empty
+    private Tile[] tiles;
+    private int mask;
+    private int size;
+
+    TileIndex() {
+        keys = new long[INITIAL_CAPACITY];
+        tiles = new Tile[INITIAL_CAPACITY];
+        mask = INITIAL_CAPACITY - 1;
+    }
+
+    Tile get(int x, int y) {
+        long key = getKey(x, y);
+
+        for (int i = getSlot(key); tiles[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return tiles[i];
+            }
+        }
+
+        return null;
+    }
+
+    Tile get(Coordinates coordinates) {
+        return get(coordinates.getX(), coordinates.getY());
+    }
+
+    boolean contains(int x, int y) {
+        return get(x, y) != null;
+    }
+
+    boolean contains(Coordinates coordinates) {
+        return get(coordinates.getX(), coordinates.getY()) != null;
+    }
+
+    /**
+     * Puts a tile at the given coordinates, replacing the tile there if any.
+     *
+     * @param coordinates The coordinates.
+     * @param tile        The tile.
+     */
+    void put(Coordinates coordinates, Tile tile) {
+        if (2 * (size + 1) > tiles.length) {
+            grow();
+        }
+
+        long key = getKey(coordinates.getX(), coordinates.getY());
+        int i = getSlot(key);
+
+        while (tiles[i] != null) {
+            if (keys[i] == key) {
+                tiles[i] = tile;
+                return;
+            }
+
+            i = (i + 1) & mask;
+        }
+
+        keys[i] = key;
+        tiles[i] = tile;
+        size++;
+    }
+
+    /**
+     * Removes the tile at the given coordinates, if any.
+     *
+     * @param coordinates The coordinates.
+     */
+    void remove(Coordinates coordinates) {
+        long key = getKey(coordinates.getX(), coordinates.getY());
+        int hole = getSlot(key);
+
+        while (tiles[hole] != null && keys[hole] != key) {
+            hole = (hole + 1) & mask;
+        }
+
+        if (tiles[hole] == null) {
+            return;
+        }
+
+        // Moves back every entry of the run that would no longer be found past the hole
+        for (int i = (hole + 1) & mask; tiles[i] != null; i = (i + 1) & mask) {
+            int slot = getSlot(keys[i]);
+
+            if (((i - slot) & mask) >= ((i - hole) & mask)) {
+                keys[hole] = keys[i];
+                tiles[hole] = tiles[i];
+                hole = i;
+            }
+        }
+
+        tiles[hole] = null;
+        size--;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Packs the coordinates into a key, also used by SlotIndex
+    static long getKey(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    // Spreads the neighbouring keys of a board over a table, also used by SlotIndex
+    static int spread(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    private int getSlot(long key) {
+        return spread(key) & mask;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        Tile[] oldTiles = tiles;
+
+        keys = new long[oldKeys.length * 2];
+        tiles = new Tile[oldTiles.length * 2];
+        mask = tiles.length - 1;
+
+        for (int i = 0; i < oldTiles.length; i++) {
+            if (oldTiles[i] != null) {
+                int slot = getSlot(oldKeys[i]);
+
+                while (tiles[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+
+                keys[slot] = oldKeys[i];
+                tiles[slot] = oldTiles[i];
+            }
+        }
+    }
+}
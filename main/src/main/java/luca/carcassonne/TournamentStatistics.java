@@ -0,0 +1,211 @@
+package luca.carcassonne;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+import luca.carcassonne.mcts.Move;
+import luca.carcassonne.player.Player;
+import luca.carcassonne.tile.Tile;
+
+/**
+ * Gathers the results of many games played in parallel, seat by seat.
+ *
+ * Added as a listener to every game of a run. Wins, ties, total scores and
+ * move times are counted in {@code LongAdder}s, so games finishing at the same
+ * time never wait on each other. The score distributions (mean, variance,
+ * range and histogram of each seat's score and of the score difference
+ * between the first two seats) are kept in a buffer per thread and merged when
+ * read.
+ *
+ * The distributions are only complete once every game has ended, e.g. after
+ * the pool running them has terminated.
+ *
+ * @author Luca Brown
+ */
+public class TournamentStatistics implements GameListener {
+    private static final int SCORE_BIN_WIDTH = 10;
+    private static final int SCORE_BINS = 30;
+
+    private final int nPlayers;
+    private final int deckSize;
+    private final LongAdder games = new LongAdder();
+    private final LongAdder[] wins;
+    private final LongAdder[] ties;
+    private final LongAdder[] totalScore;
+    // Indexed by turn, summed over all games
+    private final LongAdder[] timeForMove;
+
+    private final Queue<Buffer> buffers = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<Buffer> buffer = ThreadLocal.withInitial(this::newBuffer);
+
+    // The distributions gathered by one thread
+    private class Buffer {
+        private final RunningStatistics[] scores = new RunningStatistics[nPlayers];
+        private final RunningStatistics scoreDelta = newScoreDeltaStatistics();
+        private int turn = 0;
+
+        private Buffer() {
+            for (int i = 0; i < nPlayers; i++) {
+                scores[i] = newScoreStatistics();
+            }
+        }
+    }
+
+    public TournamentStatistics(int nPlayers) {
+        this.nPlayers = nPlayers;
+        this.deckSize = Settings.getStandardDeck().size();
+        this.wins = newAdders(nPlayers);
+        this.ties = newAdders(nPlayers);
+        this.totalScore = newAdders(nPlayers);
+        this.timeForMove = newAdders(deckSize);
+    }
+
+    @Override
+    public void turnStarted(Game game, Player player, Tile tile, int tilesLeft) {
+        buffer.get().turn = deckSize - tilesLeft - 1;
+    }
+
+    @Override
+    public void movePlayed(Game game, Player player, Move move, long timeForMove) {
+        this.timeForMove[buffer.get().turn].add(timeForMove);
+    }
+
+    @Override
+    public void gameEnded(Game game) {
+        addResult(game.getPlayers());
+    }
+
+    /**
+     * Adds the final scores of a game.
+     *
+     * The players with the highest score tie if there's more than one of them,
+     * otherwise the one with the highest score wins.
+     *
+     * @param players The players of the game, in seat order.
+     */
+    public void addResult(List<Player> players) {
+        Buffer local = buffer.get();
+        int maxScore = Integer.MIN_VALUE;
+        int maxPlayers = 0;
+
+        for (int i = 0; i < nPlayers; i++) {
+            int score = players.get(i).getScore();
+
+            totalScore[i].add(score);
+            local.scores[i].add(score);
+
+            if (score > maxScore) {
+                maxScore = score;
+                maxPlayers = 1;
+            } else if (score == maxScore) {
+                maxPlayers++;
+            }
+        }
+
+        for (int i = 0; i < nPlayers; i++) {
+            if (players.get(i).getScore() == maxScore) {
+                (maxPlayers > 1 ? ties : wins)[i].increment();
+            }
+        }
+
+        if (nPlayers > 1) {
+            local.scoreDelta.add(players.get(0).getScore() - players.get(1).getScore());
+        }
+
+        games.increment();
+    }
+
+    public int getNumberOfPlayers() {
+        return nPlayers;
+    }
+
+    public long getGames() {
+        return games.sum();
+    }
+
+    public long getWins(int seat) {
+        return wins[seat].sum();
+    }
+
+    public long getTies(int seat) {
+        return ties[seat].sum();
+    }
+
+    public double getAverageScore(int seat) {
+        long played = games.sum();
+
+        return played == 0 ? 0 : (double) totalScore[seat].sum() / played;
+    }
+
+    /**
+     * Returns the average time taken for the move of the given turn over all
+     * games, in ms.
+     *
+     * @param turn The turn, starting from 0.
+     * @return The average time for the move.
+     */
+    public double getAverageTimeForMove(int turn) {
+        long played = games.sum();
+
+        return played == 0 ? 0 : (double) timeForMove[turn].sum() / played;
+    }
+
+    /**
+     * Returns the distribution of a seat's final scores.
+     *
+     * @param seat The seat.
+     * @return The merged statistics of all threads.
+     */
+    public RunningStatistics getScoreStatistics(int seat) {
+        RunningStatistics statistics = newScoreStatistics();
+
+        for (Buffer local : buffers) {
+            statistics.merge(local.scores[seat]);
+        }
+
+        return statistics;
+    }
+
+    /**
+     * Returns the distribution of the first seat's score minus the second's.
+     *
+     * @return The merged statistics of all threads.
+     */
+    public RunningStatistics getScoreDeltaStatistics() {
+        RunningStatistics statistics = newScoreDeltaStatistics();
+
+        for (Buffer local : buffers) {
+            statistics.merge(local.scoreDelta);
+        }
+
+        return statistics;
+    }
+
+    private Buffer newBuffer() {
+        Buffer local = new Buffer();
+
+        buffers.add(local);
+
+        return local;
+    }
+
+    private static RunningStatistics newScoreStatistics() {
+        return new RunningStatistics(0, SCORE_BIN_WIDTH, SCORE_BINS);
+    }
+
+    private static RunningStatistics newScoreDeltaStatistics() {
+        return new RunningStatistics(-SCORE_BIN_WIDTH * SCORE_BINS / 2, SCORE_BIN_WIDTH, SCORE_BINS);
+    }
+
+    private static LongAdder[] newAdders(int size) {
+        LongAdder[] adders = new LongAdder[size];
+
+        for (int i = 0; i < size; i++) {
+            adders[i] = new LongAdder();
+        }
+
+        return adders;
+    }
+}
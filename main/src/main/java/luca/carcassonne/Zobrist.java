@@ -0,0 +1,108 @@
+package luca.carcassonne;
+
+/**
+ * Zobrist keys used to hash boards and states.
+ *
+ * Instead of tables of random numbers, which would need bounds on the
+ * coordinates, each key is a fixed mix of the values it stands for. A position
+ * is hashed by XOR-ing the keys of its parts, so placing a tile or a meeple
+ * updates the hash in constant time, and undoing it is the same XOR.
+ *
+ * @author Luca Brown
+ */
+public final class Zobrist {
+    private static final long TILE = 0x9E3779B97F4A7C15L;
+    private static final long MEEPLE = 0xC2B2AE3D27D4EB4FL;
+    private static final long PLAYER_TO_MOVE = 0x165667B19E3779F9L;
+    private static final long CURRENT_TILE = 0xD6E8FEB86659FD93L;
+    private static final long DECK_TILE = 0xFF51AFD7ED558CCDL;
+    private static final long PLAYER = 0xC4CEB9FE1A85EC53L;
+    private static final long SEARCHING_PLAYER = 0x2545F4914F6CDD1DL;
+
+    private Zobrist() {
+    }
+
+    /**
+     * Returns the key of a placed tile.
+     *
+     * @param typeId   The id of the tile's type.
+     * @param rotation The tile's rotation, preferably canonical.
+     * @param x        The x coordinate.
+     * @param y        The y coordinate.
+     * @return The key.
+     */
+    public static long tile(int typeId, int rotation, int x, int y) {
+        return mix(TILE, ((long) typeId << 40) ^ ((long) rotation << 32) ^ pack(x, y));
+    }
+
+    /**
+     * Returns the key of a meeple on a placed tile. The feature is identified by
+     * its cardinal points rather than its index, so that symmetric rotations of
+     * a tile give the same key.
+     *
+     * @param x                 The x coordinate of the tile.
+     * @param y                 The y coordinate of the tile.
+     * @param cardinalPointMask The cardinal points of the feature.
+     * @param colour            The ordinal of the owner's colour.
+     * @return The key.
+     */
+    public static long meeple(int x, int y, int cardinalPointMask, int colour) {
+        return mix(MEEPLE, ((long) colour << 44) ^ ((long) cardinalPointMask << 32) ^ pack(x, y));
+    }
+
+    public static long playerToMove(int player) {
+        return mix(PLAYER_TO_MOVE, player);
+    }
+
+    public static long currentTile(int typeId) {
+        return mix(CURRENT_TILE, typeId);
+    }
+
+    /**
+     * Returns the key of one tile left in the deck. Deck keys are added rather
+     * than XOR-ed, so that the same tile twice doesn't cancel out.
+     *
+     * @param typeId The id of the tile's type.
+     * @return The key.
+     */
+    public static long deckTile(int typeId) {
+        return mix(DECK_TILE, typeId);
+    }
+
+    /**
+     * Returns the key of a player's score and remaining meeples.
+     *
+     * @param player           The index of the player.
+     * @param score            The player's score.
+     * @param availableMeeples The player's remaining meeples.
+     * @return The key.
+     */
+    public static long player(int player, int score, int availableMeeples) {
+        return mix(PLAYER, ((long) player << 48) ^ ((long) availableMeeples << 32) ^ (score & 0xFFFFFFFFL));
+    }
+
+    /**
+     * Returns the key of the player a search is run for, since the statistics of
+     * a state depend on whose point of view they are from.
+     *
+     * @param player The index of the player.
+     * @return The key.
+     */
+    public static long searchingPlayer(int player) {
+        return mix(SEARCHING_PLAYER, player);
+    }
+
+    private static long pack(int x, int y) {
+        return ((long) (x & 0xFFFF) << 16) | (y & 0xFFFF);
+    }
+
+    // The SplitMix64 finalizer, which spreads every input bit over the output
+    private static long mix(long domain, long value) {
+        long z = domain + value * 0x9E3779B97F4A7C15L;
+
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+
+        return z ^ (z >>> 31);
+    }
+}
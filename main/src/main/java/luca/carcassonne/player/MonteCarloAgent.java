@@ -6,6 +6,9 @@ import java.util.Stack;
 import luca.carcassonne.Board;
 import luca.carcassonne.mcts.MonteCarloTreeSearch;
 import luca.carcassonne.mcts.Move;
+import luca.carcassonne.mcts.Node;
+import luca.carcassonne.mcts.SearchParallelism;
+import luca.carcassonne.mcts.TranspositionTable;
 import luca.carcassonne.tile.Tile;
 
 /**
@@ -16,6 +19,19 @@ import luca.carcassonne.tile.Tile;
 public class MonteCarloAgent extends Player {
     private int maxIterations = 0;
     private double explorationConstant = 0;
+    // Kept between moves, null if the agent doesn't use one
+    private TranspositionTable transpositionTable = null;
+    private SearchParallelism parallelism = SearchParallelism.NONE;
+    private int numberOfThreads = 1;
+    // The tree of the last search, continued by the next one when possible
+    private Node searchTree = null;
+    // Time budgets in milliseconds, 0 if unused
+    private long timePerMove = 0;
+    private long timePerGame = 0;
+    private long remainingGameTime = 0;
+    private boolean lazyExpansion = false;
+    private double wideningConstant = 1;
+    private double wideningExponent = 0.5;
 
     public MonteCarloAgent(Colour colour, int maxIterations, double explorationConstant) {
         super(colour);
@@ -23,9 +39,28 @@ public class MonteCarloAgent extends Player {
         this.explorationConstant = explorationConstant;
     }
 
+    /**
+     * Creates an agent that shares statistics between equal states through a
+     * transposition table of at most the given number of entries.
+     * 
+     * @param colour                 The colour of the agent.
+     * @param maxIterations          The number of iterations per search.
+     * @param explorationConstant    The UCT exploration constant.
+     * @param transpositionTableSize The capacity of the transposition table.
+     */
+    public MonteCarloAgent(Colour colour, int maxIterations, double explorationConstant,
+            int transpositionTableSize) {
+        this(colour, maxIterations, explorationConstant);
+        this.transpositionTable = new TranspositionTable(transpositionTableSize);
+    }
+
     /**
      * Returns the best move found by Monte Carlo Tree Search.
      * 
+     * The tree of the previous move is kept and, if it reached the current
+     * state, the search continues from that subtree instead of an empty one.
+     * Root-parallel searches build separate trees, so they don't keep one.
+     * 
      * @param startingBoard  The board to start the search from.
      * @param startingPlayer The player to start the search from.
      * @param currentTile    The tile to start the search from.
@@ -41,7 +76,46 @@ public class MonteCarloAgent extends Player {
                 startingPlayer, currentTile,
                 players, availableTiles);
 
-        return mcts.findNextMove();
+        mcts.setTranspositionTable(transpositionTable);
+        mcts.setParallelism(parallelism, numberOfThreads);
+        mcts.setTimeBudget(getMoveTimeBudget(players.size(), availableTiles.size()));
+        mcts.setLazyExpansion(lazyExpansion);
+        mcts.setProgressiveWidening(wideningConstant, wideningExponent);
+
+        long startTime = System.currentTimeMillis();
+        Move move;
+
+        if (parallelism == SearchParallelism.ROOT) {
+            searchTree = null;
+            move = mcts.findNextMove();
+        } else {
+            if (searchTree != null) {
+                mcts.reuseTree(searchTree);
+            }
+
+            move = mcts.findNextMove();
+            searchTree = mcts.getRootNode();
+        }
+
+        remainingGameTime -= System.currentTimeMillis() - startTime;
+
+        return move;
+    }
+
+    /**
+     * Returns the time the next search can take. With a time per game, the time
+     * left is split evenly over the moves the agent has left.
+     * 
+     * @param nPlayers        The number of players.
+     * @param nAvailableTiles The number of tiles left after the current one.
+     * @return The time budget in milliseconds, 0 for no limit.
+     */
+    private long getMoveTimeBudget(int nPlayers, int nAvailableTiles) {
+        if (timePerGame <= 0) {
+            return timePerMove;
+        }
+
+        return Math.max(1, remainingGameTime / (nAvailableTiles / nPlayers + 1));
     }
 
     public void setMaxIterations(int maxIterations) {
@@ -59,4 +133,95 @@ public class MonteCarloAgent extends Player {
     public double getExplorationConstant() {
         return explorationConstant;
     }
+
+    public long getTimePerMove() {
+        return timePerMove;
+    }
+
+    /**
+     * Gives every search the same wall-clock time.
+     * 
+     * @param timePerMove The time per move in milliseconds, 0 for no limit.
+     */
+    public void setTimePerMove(long timePerMove) {
+        this.timePerMove = timePerMove;
+        this.timePerGame = 0;
+    }
+
+    public long getTimePerGame() {
+        return timePerGame;
+    }
+
+    /**
+     * Gives the agent a wall-clock time for the whole game, shared out over its
+     * moves as the game goes on.
+     * 
+     * @param timePerGame The time per game in milliseconds, 0 for no limit.
+     */
+    public void setTimePerGame(long timePerGame) {
+        this.timePerGame = timePerGame;
+        this.remainingGameTime = timePerGame;
+        this.timePerMove = 0;
+    }
+
+    public long getRemainingGameTime() {
+        return remainingGameTime;
+    }
+
+    public void setRemainingGameTime(long remainingGameTime) {
+        this.remainingGameTime = remainingGameTime;
+    }
+
+    public boolean isLazyExpansion() {
+        return lazyExpansion;
+    }
+
+    public void setLazyExpansion(boolean lazyExpansion) {
+        this.lazyExpansion = lazyExpansion;
+    }
+
+    public double getWideningConstant() {
+        return wideningConstant;
+    }
+
+    public double getWideningExponent() {
+        return wideningExponent;
+    }
+
+    public void setProgressiveWidening(double wideningConstant, double wideningExponent) {
+        this.wideningConstant = wideningConstant;
+        this.wideningExponent = wideningExponent;
+    }
+
+    public Node getSearchTree() {
+        return searchTree;
+    }
+
+    public TranspositionTable getTranspositionTable() {
+        return transpositionTable;
+    }
+
+    public SearchParallelism getParallelism() {
+        return parallelism;
+    }
+
+    public int getNumberOfThreads() {
+        return numberOfThreads;
+    }
+
+    /**
+     * Makes every search of the agent use the given number of threads, e.g. one
+     * tree per core with {@code SearchParallelism.ROOT}.
+     * 
+     * @param parallelism     The kind of parallelism.
+     * @param numberOfThreads The number of threads.
+     */
+    public void setParallelism(SearchParallelism parallelism, int numberOfThreads) {
+        if (numberOfThreads < 1) {
+            throw new IllegalArgumentException("Invalid number of threads: " + numberOfThreads);
+        }
+
+        this.parallelism = parallelism;
+        this.numberOfThreads = numberOfThreads;
+    }
 }
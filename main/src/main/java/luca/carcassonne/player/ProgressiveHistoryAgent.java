@@ -7,6 +7,7 @@ import java.util.Stack;
 import org.javatuples.Pair;
 
 import luca.carcassonne.Board;
+import luca.carcassonne.mcts.ActionStatistics;
 import luca.carcassonne.mcts.MonteCarloTreeSearch;
 import luca.carcassonne.mcts.Move;
 import luca.carcassonne.tile.Tile;
@@ -20,19 +21,35 @@ import luca.carcassonne.tile.Tile;
 public class ProgressiveHistoryAgent extends Player {
     private int maxIterations = 0;
     private double explorationConstant = 0;
-    // The total number of times an action has been taken.
-    private HashMap<Pair<String, Integer>, Integer> totalActionMap = new HashMap<>();
-    // The total number of times an action resulted in a win.
-    private HashMap<Pair<String, Integer>, Integer> winningActionMap = new HashMap<>();
+    // How many times each action was played and won, possibly shared with other agents
+    private ActionStatistics actionStatistics;
 
+    public ProgressiveHistoryAgent(Colour colour, int maxIterations, double explorationConstant,
+            ActionStatistics actionStatistics) {
+        super(colour);
+        this.maxIterations = maxIterations;
+        this.explorationConstant = explorationConstant;
+        this.actionStatistics = actionStatistics;
+    }
+
+    /**
+     * Creates an agent with its own statistics, holding the counts of the given
+     * action maps.
+     * 
+     * @param colour              The colour of the agent.
+     * @param maxIterations       The number of iterations of each search.
+     * @param explorationConstant The exploration constant of the search.
+     * @param totalActionMap      The number of times each action was played.
+     * @param winningActionMap    The number of times each action was played by a
+     *                            winner.
+     */
     public ProgressiveHistoryAgent(
             Colour colour,
             int maxIterations,
             double explorationConstant, HashMap<Pair<String, Integer>, Integer> totalActionMap,
             HashMap<Pair<String, Integer>, Integer> winningActionMap) {
-        super(colour);
-        this.maxIterations = maxIterations;
-        this.explorationConstant = explorationConstant;
+        this(colour, maxIterations, explorationConstant,
+                ActionStatistics.fromMaps(totalActionMap, winningActionMap));
     }
 
     /**
@@ -53,7 +70,7 @@ public class ProgressiveHistoryAgent extends Player {
                 startingPlayer, currentTile,
                 players, availableTiles);
 
-        return mcts.findProgressiveHistoryMove(totalActionMap, winningActionMap);
+        return mcts.findProgressiveHistoryMove(actionStatistics);
     }
 
     public void setMaxIterations(int maxIterations) {
@@ -72,20 +89,12 @@ public class ProgressiveHistoryAgent extends Player {
         return explorationConstant;
     }
 
-    public HashMap<Pair<String, Integer>, Integer> getTotalActionMap() {
-        return totalActionMap;
-    }
-
-    public void setTotalActionMap(HashMap<Pair<String, Integer>, Integer> totalActionMap) {
-        this.totalActionMap = totalActionMap;
-    }
-
-    public HashMap<Pair<String, Integer>, Integer> getWinningActionMap() {
-        return winningActionMap;
+    public ActionStatistics getActionStatistics() {
+        return actionStatistics;
     }
 
-    public void setWinningActionMap(HashMap<Pair<String, Integer>, Integer> winningActionMap) {
-        this.winningActionMap = winningActionMap;
+    public void setActionStatistics(ActionStatistics actionStatistics) {
+        this.actionStatistics = actionStatistics;
     }
 
 }
@@ -1,10 +1,121 @@
 package luca.carcassonne.tile;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * The cardinal points of a {@code Feature}.
- * 
+ *
+ * A set of cardinal points is stored as a 12-bit mask, with bit {@code i}
+ * standing for the point with ordinal {@code i}. The four sides (N, E, S, W)
+ * take the low 4 bits and the eight points next to them the high 8 bits, so
+ * rotating a set clockwise is a rotation of each group: by 1 for the sides and
+ * by 2 for the others.
+ *
  * @author Luca Brown
  */
 public enum CardinalPoint {
     N, E, S, W, NNE, ENE, ESE, SSE, SSW, WSW, WNW, NNW;
+
+    // The points in the middle of each side
+    public static final int SIDE_MASK = 0xF;
+
+    private static final CardinalPoint[] VALUES = values();
+    // The points on each edge of a tile (0 = north, 1 = east, 2 = south, 3 = west)
+    private static final int[] EDGE_MASKS = {
+            mask(NNW, N, NNE),
+            mask(ENE, E, ESE),
+            mask(SSE, S, SSW),
+            mask(WSW, W, WNW)
+    };
+    // For each mask, the points they touch on the adjacent tile
+    private static final int[] FACING_MASKS = new int[1 << 12];
+
+    static {
+        CardinalPoint[] facing = { S, W, N, E, SSE, WNW, WSW, NNE, NNW, ESE, ENE, SSW };
+
+        for (int mask = 1; mask < FACING_MASKS.length; mask++) {
+            int lowestPoint = Integer.numberOfTrailingZeros(mask);
+
+            FACING_MASKS[mask] = FACING_MASKS[mask & (mask - 1)] | facing[lowestPoint].bit();
+        }
+    }
+
+    public int bit() {
+        return 1 << ordinal();
+    }
+
+    /**
+     * Packs the given points into a mask.
+     *
+     * @param cardinalPoints The points.
+     * @return The mask.
+     */
+    public static int mask(CardinalPoint... cardinalPoints) {
+        int mask = 0;
+
+        for (CardinalPoint cardinalPoint : cardinalPoints) {
+            mask |= cardinalPoint.bit();
+        }
+
+        return mask;
+    }
+
+    public static int mask(List<CardinalPoint> cardinalPoints) {
+        return mask(cardinalPoints.toArray(new CardinalPoint[0]));
+    }
+
+    /**
+     * Unpacks a mask into a list of points, in declaration order.
+     *
+     * @param mask The mask.
+     * @return The points in the mask.
+     */
+    public static ArrayList<CardinalPoint> fromMask(int mask) {
+        ArrayList<CardinalPoint> cardinalPoints = new ArrayList<>(Integer.bitCount(mask));
+
+        while (mask != 0) {
+            cardinalPoints.add(VALUES[Integer.numberOfTrailingZeros(mask)]);
+            mask &= mask - 1;
+        }
+
+        return cardinalPoints;
+    }
+
+    /**
+     * Rotates a mask clockwise by a quarter turn (N becomes E, NNE becomes ESE).
+     *
+     * @param mask The mask.
+     * @return The rotated mask.
+     */
+    public static int rotateClockwise(int mask) {
+        int sides = mask & SIDE_MASK;
+        int others = mask >>> 4;
+
+        sides = ((sides << 1) | (sides >>> 3)) & 0xF;
+        others = ((others << 2) | (others >>> 6)) & 0xFF;
+
+        return sides | (others << 4);
+    }
+
+    /**
+     * Returns the points on an edge of a tile.
+     *
+     * @param side The edge (0 = north, 1 = east, 2 = south, 3 = west).
+     * @return The mask of the points on that edge.
+     */
+    public static int getEdgeMask(int side) {
+        return EDGE_MASKS[side];
+    }
+
+    /**
+     * Maps every point to the point it touches on the adjacent tile, e.g. SSW to
+     * NNW and E to W.
+     *
+     * @param mask The mask.
+     * @return The mask of the facing points.
+     */
+    public static int getFacing(int mask) {
+        return FACING_MASKS[mask];
+    }
 }
@@ -52,4 +52,9 @@ public class Coordinates {
         return c.getX() == x && c.getY() == y;
     }
 
+    @Override
+    public int hashCode() {
+        return 31 * x + y;
+    }
+
 }
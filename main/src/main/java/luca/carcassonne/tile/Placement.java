@@ -0,0 +1,47 @@
+package luca.carcassonne.tile;
+
+/**
+ * A legal way of placing a tile: the coordinates and the number of clockwise
+ * rotations to apply to it.
+ *
+ * @author Luca Brown
+ */
+public class Placement {
+    private final Coordinates coordinates;
+    private final int rotation;
+
+    public Placement(Coordinates coordinates, int rotation) {
+        this.coordinates = coordinates;
+        this.rotation = rotation;
+    }
+
+    public Coordinates getCoordinates() {
+        return coordinates;
+    }
+
+    public int getRotation() {
+        return rotation;
+    }
+
+    @Override
+    public String toString() {
+        return coordinates + " r" + rotation;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        }
+        if (!(o instanceof Placement)) {
+            return false;
+        }
+        Placement p = (Placement) o;
+        return p.getRotation() == rotation && p.getCoordinates().equals(coordinates);
+    }
+
+    @Override
+    public int hashCode() {
+        return 4 * coordinates.hashCode() + rotation;
+    }
+}
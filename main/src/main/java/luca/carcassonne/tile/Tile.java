@@ -13,10 +13,15 @@ import luca.carcassonne.tile.feature.Feature;
  * for tile placement,
  * and a list of {@code Features} that are the features on the tile itself.
  * 
+ * Tiles created through the {@code TileType} catalog also know their type id
+ * and how many times they were rotated clockwise.
+ * 
  * @author Luca Brown
  */
 public class Tile {
     private String id;
+    private int typeId = -1;
+    private int rotation;
     private ArrayList<SideFeature> sideFeatures;
     private Coordinates coordinates;
     private ArrayList<Feature> features;
@@ -82,6 +87,8 @@ public class Tile {
     }
 
     public void rotateClockwise(int times) {
+        rotation = (rotation + times) % 4;
+
         SideFeature west;
         for (int i = 0; i < times; i++) {
             west = sideFeatures.remove(3);
@@ -96,48 +103,7 @@ public class Tile {
 
     private void rotateSideFeaturesClockwise() {
         for (Feature feature : features) {
-            ArrayList<CardinalPoint> cardinalPoints = feature.getCardinalPoints();
-
-            for (CardinalPoint point : cardinalPoints) {
-                switch (point) {
-                    case NNE:
-                        feature.setCardinalPoints(cardinalPoints.indexOf(point), CardinalPoint.ESE);
-                        break;
-                    case ENE:
-                        feature.setCardinalPoints(cardinalPoints.indexOf(point), CardinalPoint.SSE);
-                        break;
-                    case ESE:
-                        feature.setCardinalPoints(cardinalPoints.indexOf(point), CardinalPoint.SSW);
-                        break;
-                    case SSE:
-                        feature.setCardinalPoints(cardinalPoints.indexOf(point), CardinalPoint.WSW);
-                        break;
-                    case SSW:
-                        feature.setCardinalPoints(cardinalPoints.indexOf(point), CardinalPoint.WNW);
-                        break;
-                    case WSW:
-                        feature.setCardinalPoints(cardinalPoints.indexOf(point), CardinalPoint.NNW);
-                        break;
-                    case WNW:
-                        feature.setCardinalPoints(cardinalPoints.indexOf(point), CardinalPoint.NNE);
-                        break;
-                    case NNW:
-                        feature.setCardinalPoints(cardinalPoints.indexOf(point), CardinalPoint.ENE);
-                        break;
-                    case N:
-                        feature.setCardinalPoints(cardinalPoints.indexOf(point), CardinalPoint.E);
-                        break;
-                    case E:
-                        feature.setCardinalPoints(cardinalPoints.indexOf(point), CardinalPoint.S);
-                        break;
-                    case S:
-                        feature.setCardinalPoints(cardinalPoints.indexOf(point), CardinalPoint.W);
-                        break;
-                    case W:
-                        feature.setCardinalPoints(cardinalPoints.indexOf(point), CardinalPoint.N);
-                        break;
-                }
-            }
+            feature.setCardinalPointMask(CardinalPoint.rotateClockwise(feature.getCardinalPointMask()));
         }
     }
 
@@ -189,6 +155,29 @@ public class Tile {
         this.id = id;
     }
 
+    /**
+     * Returns the id of the tile's type, or -1 for a tile that isn't in the
+     * catalog.
+     * 
+     * @return The type id.
+     */
+    public int getTypeId() {
+        if (typeId < 0 && id != null) {
+            typeId = TileType.get(id).getId();
+        }
+
+        return typeId;
+    }
+
+    public int getRotation() {
+        return rotation;
+    }
+
+    public void setType(int typeId, int rotation) {
+        this.typeId = typeId;
+        this.rotation = rotation;
+    }
+
     @Override
     public String toString() {
         return "Tile" + sideFeatures;
@@ -0,0 +1,305 @@
+package luca.carcassonne.tile;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import luca.carcassonne.Settings;
+import luca.carcassonne.tile.feature.Castle;
+import luca.carcassonne.tile.feature.Feature;
+import luca.carcassonne.tile.feature.Field;
+import luca.carcassonne.tile.feature.Monastery;
+import luca.carcassonne.tile.feature.Road;
+
+/**
+ * The immutable definition of a kind of tile, shared by every tile of that
+ * kind.
+ *
+ * The catalog is built once from the definitions in {@code Settings}. Each type
+ * gets a dense integer id and keeps its side features and the cardinal points
+ * of its features for all 4 rotations, so a tile can be created already
+ * rotated without going through the definitions or rotating it step by step.
+ *
+ * @author Luca Brown
+ */
+public final class TileType {
+    private static final int CASTLE = 0;
+    private static final int ROAD = 1;
+    private static final int FIELD = 2;
+    private static final int MONASTERY = 3;
+    private static final Class<?>[] KIND_CLASSES = { Castle.class, Road.class, Field.class, Monastery.class };
+
+    // Every tile in the game, in id order
+    private static final String[] NAMES = {
+            "Monastery",
+            "Monastery with road",
+            "Straight road",
+            "Curvy road",
+            "Three road intersection",
+            "Four road intersection",
+            "Single castle",
+            "Single castle with straight road",
+            "Single castle with curvy road left",
+            "Single castle with curvy road right",
+            "Single castle with three road intersection",
+            "Straight castle",
+            "Curvy castle",
+            "Curvy castle with curvy road",
+            "Two single castles opposite",
+            "Two single castles adjacent",
+            "Straight castle with shield",
+            "Curvy castle with shield",
+            "Curvy castle with shield with curvy road",
+            "Big castle",
+            "Big castle with road",
+            "Big castle with shield",
+            "Big castle with shield with road",
+            "Huge castle"
+    };
+    private static final TileType[] TYPES = new TileType[NAMES.length];
+    private static final HashMap<String, TileType> TYPES_BY_NAME = new HashMap<>();
+
+    static {
+        for (int id = 0; id < NAMES.length; id++) {
+            TYPES[id] = new TileType(id, Settings.getTileDefinition(NAMES[id]));
+            TYPES_BY_NAME.put(NAMES[id], TYPES[id]);
+        }
+    }
+
+    private final int id;
+    private final String name;
+    // [rotation][side]
+    private final SideFeature[][] sideFeatures;
+    // [rotation][feature], see CardinalPoint
+    private final int[][] cardinalPointMasks;
+    private final int[] kinds;
+    private final boolean[] shields;
+    // For each field, the indexes of its adjacent castles
+    private final int[][] adjacentCastles;
+    // The smallest rotation that looks the same as each rotation
+    private final int[] canonicalRotations;
+
+    private TileType(int id, Tile definition) {
+        ArrayList<Feature> features = definition.getFeatures();
+        int nFeatures = features.size();
+
+        this.id = id;
+        this.name = definition.getId();
+        this.sideFeatures = new SideFeature[4][];
+        this.cardinalPointMasks = new int[4][nFeatures];
+        this.kinds = new int[nFeatures];
+        this.shields = new boolean[nFeatures];
+        this.adjacentCastles = new int[nFeatures][];
+        this.canonicalRotations = new int[4];
+
+        for (int i = 0; i < nFeatures; i++) {
+            Feature feature = features.get(i);
+
+            if (feature instanceof Castle) {
+                kinds[i] = CASTLE;
+                shields[i] = ((Castle) feature).hasShield();
+            } else if (feature instanceof Road) {
+                kinds[i] = ROAD;
+            } else if (feature instanceof Field) {
+                ArrayList<Castle> castles = ((Field) feature).getAdjacentCastles();
+
+                kinds[i] = FIELD;
+                adjacentCastles[i] = new int[castles.size()];
+
+                for (int j = 0; j < castles.size(); j++) {
+                    adjacentCastles[i][j] = features.indexOf(castles.get(j));
+                }
+            } else {
+                kinds[i] = MONASTERY;
+            }
+        }
+
+        // Rotating the definition itself guarantees the same result as rotateClockwise
+        for (int rotation = 0; rotation < 4; rotation++) {
+            sideFeatures[rotation] = definition.getSideFeatures().toArray(new SideFeature[4]);
+
+            for (int i = 0; i < nFeatures; i++) {
+                cardinalPointMasks[rotation][i] = features.get(i).getCardinalPointMask();
+            }
+
+            definition.rotateClockwise();
+        }
+
+        for (int rotation = 0; rotation < 4; rotation++) {
+            int canonicalRotation = 0;
+
+            while (!looksTheSame(canonicalRotation, rotation)) {
+                canonicalRotation++;
+            }
+
+            canonicalRotations[rotation] = canonicalRotation;
+        }
+    }
+
+    // Two rotations look the same if they have the same sides and the same features
+    private boolean looksTheSame(int rotation, int otherRotation) {
+        int[] features = new int[kinds.length];
+        int[] otherFeatures = new int[kinds.length];
+
+        for (int i = 0; i < kinds.length; i++) {
+            features[i] = kinds[i] << 12 | cardinalPointMasks[rotation][i];
+            otherFeatures[i] = kinds[i] << 12 | cardinalPointMasks[otherRotation][i];
+        }
+
+        Arrays.sort(features);
+        Arrays.sort(otherFeatures);
+
+        return Arrays.equals(sideFeatures[rotation], sideFeatures[otherRotation])
+                && Arrays.equals(features, otherFeatures);
+    }
+
+    /**
+     * Returns the type with the given id.
+     *
+     * @param id The id of the type.
+     * @return The tile type.
+     */
+    public static TileType get(int id) {
+        return TYPES[id];
+    }
+
+    /**
+     * Returns the type with the given name.
+     *
+     * @param name The name of the type, e.g. "Curvy road".
+     * @return The tile type.
+     */
+    public static TileType get(String name) {
+        TileType type = TYPES_BY_NAME.get(name);
+
+        if (type == null) {
+            throw new IllegalArgumentException("Invalid tile id: " + name);
+        }
+
+        return type;
+    }
+
+    public static int getNumberOfTypes() {
+        return TYPES.length;
+    }
+
+    /**
+     * Creates a new, unrotated tile of this type.
+     *
+     * @return The new tile.
+     */
+    public Tile createTile() {
+        return createTile(0);
+    }
+
+    /**
+     * Creates a new tile of this type, already rotated clockwise the given number
+     * of times.
+     *
+     * @param rotation The number of clockwise rotations.
+     * @return The new tile.
+     */
+    public Tile createTile(int rotation) {
+        rotation = rotation & 3;
+
+        SideFeature[] sides = sideFeatures[rotation];
+        int[] masks = cardinalPointMasks[rotation];
+        Feature[] features = new Feature[kinds.length];
+
+        // Castles first, so that fields can reference them
+        for (int i = 0; i < kinds.length; i++) {
+            switch (kinds[i]) {
+                case CASTLE:
+                    features[i] = new Castle(masks[i], shields[i]);
+                    break;
+                case ROAD:
+                    features[i] = new Road(masks[i]);
+                    break;
+                case MONASTERY:
+                    features[i] = new Monastery();
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        for (int i = 0; i < kinds.length; i++) {
+            if (kinds[i] == FIELD) {
+                ArrayList<Castle> castles = new ArrayList<>(adjacentCastles[i].length);
+
+                for (int castle : adjacentCastles[i]) {
+                    castles.add((Castle) features[castle]);
+                }
+
+                features[i] = new Field(masks[i], castles);
+            }
+        }
+
+        Tile tile = new Tile(sides[0], sides[1], sides[2], sides[3], new ArrayList<>(Arrays.asList(features)),
+                name);
+        tile.setType(id, rotation);
+
+        return tile;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public SideFeature[] getSideFeatures(int rotation) {
+        return sideFeatures[rotation & 3].clone();
+    }
+
+    /**
+     * Returns the smallest rotation that gives the same tile as the given one,
+     * e.g. 0 for a straight road turned twice.
+     *
+     * @param rotation The rotation.
+     * @return The canonical rotation.
+     */
+    public int getCanonicalRotation(int rotation) {
+        return canonicalRotations[rotation & 3];
+    }
+
+    public int getCardinalPointMask(int rotation, int feature) {
+        return cardinalPointMasks[rotation & 3][feature];
+    }
+
+    /**
+     * Returns the class of a feature, e.g. {@code Road.class}.
+     *
+     * @param feature The index of the feature.
+     * @return The class of the feature.
+     */
+    public Class<?> getFeatureClass(int feature) {
+        return KIND_CLASSES[kinds[feature]];
+    }
+
+    public boolean hasShield(int feature) {
+        return shields[feature];
+    }
+
+    /**
+     * Returns the indexes of the castles next to a field, or an empty array if
+     * the feature isn't a field.
+     *
+     * @param feature The index of the feature.
+     * @return The indexes of the adjacent castles.
+     */
+    public int[] getAdjacentCastles(int feature) {
+        return adjacentCastles[feature] == null ? new int[0] : adjacentCastles[feature].clone();
+    }
+
+    public int getNumberOfFeatures() {
+        return kinds.length;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
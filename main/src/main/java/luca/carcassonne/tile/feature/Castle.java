@@ -19,12 +19,19 @@ public class Castle extends Feature {
         this.HAS_SHIELD = hasShield;
     }
 
+    public Castle(int cardinalPointMask, boolean hasShield) {
+        super(cardinalPointMask);
+        super.setPointsClosed(Settings.CASTLE_POINTS_CLOSED);
+        super.setPointsOpen(Settings.CASTLE_POINTS_OPEN);
+        this.HAS_SHIELD = hasShield;
+    }
+
     public boolean hasShield() {
         return HAS_SHIELD;
     }
 
     public void addCardinalPoint(CardinalPoint cardinalPoint) {
-        super.getCardinalPoints().add(cardinalPoint);
+        cardinalPointMask |= cardinalPoint.bit();
     }
 
 }
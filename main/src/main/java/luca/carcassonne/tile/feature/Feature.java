@@ -9,8 +9,8 @@ import luca.carcassonne.tile.Tile;
  * The abstract class for all features.
  * 
  * A feature is a part of a tile that can be claimed by a player.
- * It holds a reference to the tile it belongs to, and a list of cardinal
- * points.
+ * It holds a reference to the tile it belongs to, and the cardinal points it
+ * touches, packed into a mask (see {@code CardinalPoint}).
  * 
  * It is extended by the {@code Field}, {@code Road}, {@code Castle} and
  * {@code Monastery} classes.
@@ -19,26 +19,47 @@ import luca.carcassonne.tile.Tile;
  */
 public abstract class Feature {
     protected Player owner;
-    protected ArrayList<CardinalPoint> cardinalPoints;
+    protected int cardinalPointMask;
     protected Tile belongingTile;
     protected Integer pointsOpen;
     protected Integer pointsClosed;
+    // The id given by the board's feature tracker, -1 if the feature is not tracked.
+    protected int trackerId;
 
     Feature(ArrayList<CardinalPoint> cardinalPoints) {
-        this.cardinalPoints = cardinalPoints;
+        this(CardinalPoint.mask(cardinalPoints));
+    }
+
+    Feature(int cardinalPointMask) {
+        this.cardinalPointMask = cardinalPointMask;
         this.belongingTile = null;
+        this.trackerId = -1;
     }
 
+    /**
+     * Returns the feature's cardinal points, in declaration order. The list is a
+     * copy, use {@code getCardinalPointMask()} on hot paths.
+     * 
+     * @return The cardinal points.
+     */
     public ArrayList<CardinalPoint> getCardinalPoints() {
-        return cardinalPoints;
+        return CardinalPoint.fromMask(cardinalPointMask);
+    }
+
+    public void setCardinalPoints(ArrayList<CardinalPoint> cardinalPoints) {
+        this.cardinalPointMask = CardinalPoint.mask(cardinalPoints);
     }
 
-    public void setCardinalPoints(int indexOf, CardinalPoint cardinalPoint) {
-        this.cardinalPoints.set(indexOf, cardinalPoint);
+    public int getCardinalPointMask() {
+        return cardinalPointMask;
     }
 
-    public void setCardinalPoints(ArrayList<CardinalPoint> cardinalPoints) {
-        this.cardinalPoints = cardinalPoints;
+    public void setCardinalPointMask(int cardinalPointMask) {
+        this.cardinalPointMask = cardinalPointMask;
+    }
+
+    public boolean hasCardinalPoint(CardinalPoint cardinalPoint) {
+        return (cardinalPointMask & cardinalPoint.bit()) != 0;
     }
 
     public Tile getBelongingTile() {
@@ -73,4 +94,12 @@ public abstract class Feature {
         return pointsClosed;
     }
 
+    public int getTrackerId() {
+        return trackerId;
+    }
+
+    public void setTrackerId(int trackerId) {
+        this.trackerId = trackerId;
+    }
+
 }
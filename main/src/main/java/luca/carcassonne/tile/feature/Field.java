@@ -16,6 +16,11 @@ public class Field extends Feature {
         this.adjacentCastles = adjacentCastles;
     }
 
+    public Field(int cardinalPointMask, ArrayList<Castle> adjacentCastles) {
+        super(cardinalPointMask);
+        this.adjacentCastles = adjacentCastles;
+    }
+
     public boolean hasAdjacentCastle() {
         return adjacentCastles.size() > 0;
     }
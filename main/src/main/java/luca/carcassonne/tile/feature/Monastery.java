@@ -1,7 +1,5 @@
 package luca.carcassonne.tile.feature;
 
-import java.util.ArrayList;
-
 /**
  * A Monastery feature.
  * 
@@ -10,7 +8,7 @@ import java.util.ArrayList;
 public class Monastery extends Feature {
 
     public Monastery() {
-        super(new ArrayList<>());
+        super(0);
     }
 
 }
@@ -17,4 +17,10 @@ public class Road extends Feature {
         super.setPointsOpen(Settings.ROAD_POINTS_OPEN);
     }
 
+    public Road(int cardinalPointMask) {
+        super(cardinalPointMask);
+        super.setPointsClosed(Settings.ROAD_POINTS_CLOSED);
+        super.setPointsOpen(Settings.ROAD_POINTS_OPEN);
+    }
+
 }
@@ -0,0 +1,109 @@
+package luca.carcassonne;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.javatuples.Pair;
+import org.junit.jupiter.api.Test;
+
+import luca.carcassonne.mcts.ActionStatistics;
+import luca.carcassonne.mcts.Move;
+import luca.carcassonne.player.Colour;
+import luca.carcassonne.player.Player;
+import luca.carcassonne.tile.Coordinates;
+import luca.carcassonne.tile.TileType;
+
+public class ActionStatisticsTest {
+
+    @Test
+    void testStatisticsMatchTheActionMaps() {
+        String tileName = TileType.get(3).getName();
+        HashMap<Pair<String, Integer>, Integer> totalActionMap = new HashMap<>();
+        HashMap<Pair<String, Integer>, Integer> winningActionMap = new HashMap<>();
+
+        totalActionMap.put(new Pair<>(tileName, -1), 7);
+        totalActionMap.put(new Pair<>(tileName, 0), 4);
+        winningActionMap.put(new Pair<>(tileName, 0), 3);
+
+        ActionStatistics statistics = ActionStatistics.fromMaps(totalActionMap, winningActionMap);
+
+        assertEquals(7, statistics.getPlayed(ActionStatistics.getIndex(3, -1)));
+        assertEquals(4, statistics.getPlayed(ActionStatistics.getIndex(3, 0)));
+        assertEquals(3, statistics.getWon(ActionStatistics.getIndex(3, 0)));
+        assertEquals(0, statistics.getWon(ActionStatistics.getIndex(3, -1)));
+        assertThrows(IllegalArgumentException.class, () -> ActionStatistics.getIndex(3, -2));
+    }
+
+    @Test
+    void testMovesAreIndexedByTileType() {
+        Move move = new Move(new Coordinates(0, 1), TileType.get(5).getName(), 0, 0, 1);
+
+        assertEquals(5, move.getTileTypeId());
+        assertEquals(ActionStatistics.getIndex(5, 1), ActionStatistics.getIndex(move));
+
+        move.setTileId(TileType.get(2).getName());
+
+        assertEquals(ActionStatistics.getIndex(2, 1), ActionStatistics.getIndex(move));
+    }
+
+    @Test
+    void testBundledDataIsLoaded() {
+        ActionStatistics statistics = Game.getSharedActionStatistics();
+        long played = 0;
+        long won = 0;
+
+        for (int id = 0; id < TileType.getNumberOfTypes(); id++) {
+            for (int featureIndex = -1; featureIndex < TileType.get(id).getNumberOfFeatures(); featureIndex++) {
+                played += statistics.getPlayed(ActionStatistics.getIndex(id, featureIndex));
+                won += statistics.getWon(ActionStatistics.getIndex(id, featureIndex));
+            }
+        }
+
+        assertTrue(played > 0);
+        assertTrue(won > 0 && won <= played);
+    }
+
+    @Test
+    void testGamesFromManyThreadsAreAllCounted() throws InterruptedException {
+        ActionStatistics statistics = new ActionStatistics();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        String tileName = TileType.get(0).getName();
+        List<Move> moves = new ArrayList<>();
+
+        // The winner meeples the first feature, the loser plays no meeple
+        moves.add(new Move(new Coordinates(0, 1), tileName, 0, 0, 0));
+        moves.add(new Move(new Coordinates(0, 2), tileName, 0, 1, -1));
+
+        for (int i = 0; i < 400; i++) {
+            pool.execute(() -> statistics.addGame(moves, newPlayers(60, 40)));
+        }
+
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.MINUTES);
+
+        assertEquals(400, statistics.getGames());
+        assertEquals(400, statistics.getPlayed(ActionStatistics.getIndex(0, 0)));
+        assertEquals(400, statistics.getWon(ActionStatistics.getIndex(0, 0)));
+        assertEquals(400, statistics.getPlayed(ActionStatistics.getIndex(0, -1)));
+        assertEquals(0, statistics.getWon(ActionStatistics.getIndex(0, -1)));
+    }
+
+    private List<Player> newPlayers(int firstScore, int secondScore) {
+        List<Player> players = new ArrayList<>();
+
+        players.add(new Player(Colour.RED));
+        players.add(new Player(Colour.BLUE));
+        players.get(0).setScore(firstScore);
+        players.get(1).setScore(secondScore);
+
+        return players;
+    }
+}
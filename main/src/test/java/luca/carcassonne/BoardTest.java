@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 import luca.carcassonne.player.Colour;
 import luca.carcassonne.player.Player;
 import luca.carcassonne.tile.Coordinates;
+import luca.carcassonne.tile.Placement;
 import luca.carcassonne.tile.SideFeature;
 import luca.carcassonne.tile.Tile;
 import luca.carcassonne.tile.feature.Castle;
@@ -18,6 +19,11 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Stack;
 import java.util.stream.Collectors;
 
 import org.jgrapht.graph.DefaultEdge;
@@ -93,6 +99,157 @@ class BoardTest {
         assertTrue(board.placeTile(new Coordinates(-1, 0), tile));
     }
 
+    @Test
+    void testPlacementOnOccupiedCoordinates() {
+        board = new Board(startingTile);
+
+        Tile tile = Settings.getStraightRoad();
+        tile.rotateClockwise();
+
+        assertTrue(board.placeTile(new Coordinates(1, 0), tile));
+        assertFalse(board.placeTile(new Coordinates(1, 0), Settings.getStraightRoad()));
+        assertFalse(board.placeTile(new Coordinates(0, 0), Settings.getStraightRoad()));
+        assertFalse(board.placeTile(new Coordinates(3, 0), Settings.getStraightRoad()));
+    }
+
+    @Test
+    void testFrontierKeepsRequiredSides() {
+        board = new Board(startingTile);
+
+        Tile tile = Settings.getStraightRoad();
+        tile.rotateClockwise();
+
+        assertTrue(board.placeTile(new Coordinates(1, 0), tile));
+
+        Frontier frontier = board.getFrontier();
+
+        assertEquals(6, frontier.size());
+        assertFalse(frontier.contains(new Coordinates(1, 0)));
+        assertEquals(SideFeature.CASTLE, frontier.getRequiredSides(new Coordinates(0, 1))[2]);
+        assertEquals(SideFeature.FIELD, frontier.getRequiredSides(new Coordinates(1, 1))[2]);
+        assertEquals(SideFeature.ROAD, frontier.getRequiredSides(new Coordinates(2, 0))[3]);
+        assertEquals(null, frontier.getRequiredSides(new Coordinates(2, 0))[0]);
+
+        Tile monastery = Settings.getMonastery();
+
+        assertEquals(3, board.getAcceptingCoordinates(monastery).size());
+        assertTrue(board.getAcceptingCoordinates(monastery).contains(new Coordinates(1, 1)));
+        assertTrue(board.getAcceptingCoordinates(monastery).contains(new Coordinates(1, -1)));
+        assertTrue(board.getAcceptingCoordinates(monastery).contains(new Coordinates(0, -1)));
+    }
+
+    @Test
+    void testLegalPlacementsMatchNeighbours() {
+        Random random = new Random(0);
+        board = new Board(Settings.getStartingTile(), FeatureEngine.UNION_FIND);
+        Stack<Tile> deck = Settings.getStandardDeck();
+
+        Collections.shuffle(deck, random);
+
+        while (!deck.empty()) {
+            Tile tile = deck.pop();
+            List<Placement> placements = board.legalPlacements(tile);
+            HashSet<Placement> expectedPlacements = new HashSet<>();
+
+            for (Coordinates coordinates : board.getPossibleCoordinates()) {
+                for (int rotation = 0; rotation < 4; rotation++) {
+                    Tile rotatedTile = Settings.getTileFromId(tile.getId());
+                    rotatedTile.rotateClockwise(rotation);
+
+                    if (matchesNeighbours(coordinates, rotatedTile)) {
+                        expectedPlacements.add(new Placement(coordinates, rotation));
+                    }
+                }
+            }
+
+            assertEquals(expectedPlacements, new HashSet<>(placements));
+            assertEquals(expectedPlacements.size(), placements.size());
+
+            if (!placements.isEmpty()) {
+                Placement placement = placements.get(random.nextInt(placements.size()));
+                tile.rotateClockwise(placement.getRotation());
+                assertTrue(board.placeTile(placement.getCoordinates(), tile));
+            }
+        }
+    }
+
+    // Checks a placement against the placed tiles directly.
+    private boolean matchesNeighbours(Coordinates coordinates, Tile tile) {
+        int x = coordinates.getX();
+        int y = coordinates.getY();
+        Tile north = board.getTileFromCoordinates(new Coordinates(x, y + 1));
+        Tile east = board.getTileFromCoordinates(new Coordinates(x + 1, y));
+        Tile south = board.getTileFromCoordinates(new Coordinates(x, y - 1));
+        Tile west = board.getTileFromCoordinates(new Coordinates(x - 1, y));
+
+        return (north == null || north.getSouthSideFeature() == tile.getNorthSideFeature())
+                && (east == null || east.getWestSideFeature() == tile.getEastSideFeature())
+                && (south == null || south.getNorthSideFeature() == tile.getSouthSideFeature())
+                && (west == null || west.getEastSideFeature() == tile.getWestSideFeature());
+    }
+
+    // LOOKUP TESTS
+
+    @Test
+    void testTileLookupByCoordinates() {
+        board = new Board(startingTile);
+
+        Tile tile = Settings.getStraightRoad();
+        tile.rotateClockwise();
+
+        assertTrue(board.placeTile(new Coordinates(1, 0), tile));
+
+        assertEquals(startingTile, board.getTileFromCoordinates(new Coordinates(0, 0)));
+        assertEquals(tile, board.getTileFromCoordinates(new Coordinates(1, 0)));
+        assertEquals(null, board.getTileFromCoordinates(new Coordinates(0, 1)));
+        assertEquals(tile, board.getTileFromFeature(tile.getFeatures().get(0)));
+        assertEquals(1, board.getSurroundingTiles(startingTile));
+        assertEquals(1, board.getSurroundingTiles(tile));
+    }
+
+    // HASHING TESTS
+
+    @Test
+    void testHashIgnoresMoveOrder() {
+        Board board = new Board(Settings.getStartingTile());
+        Board otherBoard = new Board(Settings.getStartingTile());
+        long startingHash = board.getHash();
+
+        Tile right = Settings.getStraightRoad();
+        Tile left = Settings.getStraightRoad();
+        right.rotateClockwise();
+        left.rotateClockwise();
+
+        assertTrue(board.placeTile(new Coordinates(1, 0), right));
+        assertTrue(board.placeTile(new Coordinates(-1, 0), left));
+
+        right = Settings.getStraightRoad();
+        left = Settings.getStraightRoad();
+        right.rotateClockwise();
+        left.rotateClockwise();
+
+        assertTrue(otherBoard.placeTile(new Coordinates(-1, 0), left));
+        assertTrue(otherBoard.placeTile(new Coordinates(1, 0), right));
+
+        assertEquals(board.getHash(), otherBoard.getHash());
+        assertFalse(board.getHash() == startingHash);
+
+        assertTrue(board.placeMeeple(right.getFeatures().get(0), new Player(Colour.RED)));
+        assertFalse(board.getHash() == otherBoard.getHash());
+    }
+
+    @Test
+    void testHashIgnoresSymmetricRotations() {
+        Tile road = Settings.getStraightRoad();
+        Tile halfTurnRoad = Settings.getStraightRoad();
+        Tile quarterTurnRoad = Settings.getStraightRoad();
+        halfTurnRoad.rotateClockwise(2);
+        quarterTurnRoad.rotateClockwise();
+
+        assertEquals(new Board(road).getHash(), new Board(halfTurnRoad).getHash());
+        assertFalse(new Board(road).getHash() == new Board(quarterTurnRoad).getHash());
+    }
+
     // CLOSURE TESTS
 
     @Test
@@ -172,6 +172,18 @@ public class CloneManagerTest {
         assertEquals(0.5, clone.getExplorationConstant());
     }
 
+    @Test
+    void testMonteCarloAgentCloneKeepsRemainingGameTime() {
+        MonteCarloAgent agent = new MonteCarloAgent(Colour.RED, 500, 0.5);
+        agent.setTimePerGame(10000);
+        agent.setRemainingGameTime(4000);
+
+        MonteCarloAgent clone = CloneManager.clone(agent);
+
+        assertEquals(10000, clone.getTimePerGame());
+        assertEquals(4000, clone.getRemainingGameTime());
+    }
+
     @Test
     void testProgressiveHistoryAgentClone() {
         HashMap<Pair<String, Integer>, Integer> totalActionMap = new HashMap<>();
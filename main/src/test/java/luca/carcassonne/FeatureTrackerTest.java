@@ -0,0 +1,313 @@
+package luca.carcassonne;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Stack;
+
+import org.junit.jupiter.api.Test;
+
+import luca.carcassonne.mcts.Move;
+import luca.carcassonne.mcts.State;
+import luca.carcassonne.player.Colour;
+import luca.carcassonne.player.Player;
+import luca.carcassonne.tile.Coordinates;
+import luca.carcassonne.tile.Placement;
+import luca.carcassonne.tile.Tile;
+import luca.carcassonne.tile.TileType;
+import luca.carcassonne.tile.feature.Castle;
+import luca.carcassonne.tile.feature.Feature;
+
+class FeatureTrackerTest {
+
+    @Test
+    void testClosingTwoTileCastle() {
+        Board board = new Board(Settings.getSingleCastleWithStraightRoad(), FeatureEngine.UNION_FIND);
+        FeatureTracker tracker = board.getFeatureTracker();
+
+        Tile tile = Settings.getSingleCastle();
+        tile.rotateClockwise(2);
+
+        assertTrue(board.placeTile(new Coordinates(0, 1), tile));
+
+        Feature castle = tile.getFeatures().stream().filter(f -> f instanceof Castle).findFirst().get();
+        int root = tracker.find(castle);
+
+        assertEquals(1, tracker.getNewlyClosed().size());
+        assertTrue(tracker.isClosed(root));
+        assertEquals(0, tracker.getOpenSides(root));
+        assertEquals(2, tracker.getTileCount(root));
+    }
+
+    @Test
+    void testMeepleCountsFollowMerges() {
+        Board board = new Board(Settings.getStraightRoad(), FeatureEngine.UNION_FIND);
+        FeatureTracker tracker = board.getFeatureTracker();
+        Player player1 = new Player(Colour.RED);
+        Player player2 = new Player(Colour.BLUE);
+
+        Tile curvyRoad = Settings.getCurvyRoad();
+        curvyRoad.rotateClockwise();
+        assertTrue(board.placeTile(new Coordinates(0, 1), curvyRoad));
+        assertTrue(board.placeMeeple(curvyRoad.getFeatures().get(0), player1));
+
+        Tile straightRoad = Settings.getStraightRoad();
+        assertTrue(board.placeTile(new Coordinates(1, 0), straightRoad));
+        assertTrue(board.placeMeeple(straightRoad.getFeatures().get(0), player2));
+
+        curvyRoad = Settings.getCurvyRoad();
+        curvyRoad.rotateClockwise(2);
+        assertTrue(board.placeTile(new Coordinates(1, 1), curvyRoad));
+
+        int root = tracker.find(curvyRoad.getFeatures().get(0));
+
+        assertEquals(2, tracker.getMeeples(root));
+        assertEquals(1, (int) tracker.getPlayersOnFeature(root).get(player1));
+        assertEquals(1, (int) tracker.getPlayersOnFeature(root).get(player2));
+    }
+
+    @Test
+    void testEnginesScoreRandomGamesEqually() {
+        for (long seed = 0; seed < 20; seed++) {
+            playRandomGame(new Random(seed));
+        }
+    }
+
+    @Test
+    void testUndoingMovesRestoresBoard() {
+        for (long seed = 0; seed < 20; seed++) {
+            playAndUndoRandomGame(new Random(seed));
+        }
+    }
+
+    @Test
+    void testIllegalMeepleLeavesBoardUntouched() {
+        Board board = new Board(Settings.getStraightRoad(), FeatureEngine.UNION_FIND);
+        ArrayList<Player> players = new ArrayList<>();
+        players.add(new Player(Colour.RED));
+        players.add(new Player(Colour.BLUE));
+
+        assertTrue(board.applyMove(new Move(new Coordinates(0, 1), "Straight road", 0, 0, 0), players));
+
+        String before = describe(board, players);
+
+        assertFalse(board.applyMove(new Move(new Coordinates(0, 2), "Straight road", 0, 1, 0), players));
+        assertEquals(before, describe(board, players));
+        assertEquals(1, board.getPastMoves().size());
+    }
+
+    @Test
+    void testIllegalMeepleLeavesGraphBoardUntouched() {
+        Board board = new Board(Settings.getStraightRoad(), FeatureEngine.GRAPH);
+        ArrayList<Player> players = new ArrayList<>();
+        players.add(new Player(Colour.RED));
+        players.add(new Player(Colour.BLUE));
+
+        assertTrue(board.applyMove(new Move(new Coordinates(0, 1), "Straight road", 0, 0, 0), players));
+
+        String before = board.getPlacedTilesSize() + " " + board.getPossibleCoordinates() + " " + board.getHash()
+                + " " + players.get(1).getAvailableMeeples();
+
+        assertFalse(board.applyMove(new Move(new Coordinates(0, 2), "Straight road", 0, 1, 0), players));
+        assertEquals(before, board.getPlacedTilesSize() + " " + board.getPossibleCoordinates() + " "
+                + board.getHash() + " " + players.get(1).getAvailableMeeples());
+        assertEquals(1, board.getPastMoves().size());
+    }
+
+    @Test
+    void testCanPlaceMeepleMatchesApplyMove() {
+        for (int seed = 0; seed < 5; seed++) {
+            Random random = new Random(seed);
+            Board board = new Board(Settings.getStartingTile(), FeatureEngine.UNION_FIND);
+            ArrayList<Player> players = new ArrayList<>();
+            Stack<Tile> deck = Settings.getStandardDeck();
+
+            players.add(new Player(Colour.RED));
+            players.add(new Player(Colour.BLUE));
+            Collections.shuffle(deck, random);
+
+            State state = new State(board, 0, deck.pop(), players, deck);
+
+            while (state.getCurrentTile() != null) {
+                Tile tile = state.getCurrentTile();
+                int currentPlayer = state.getCurrentPlayer();
+                TileType type = TileType.get(tile.getTypeId());
+                List<Placement> placements = board.legalPlacements(tile);
+
+                for (Placement placement : placements) {
+                    for (int k = 0; k < type.getNumberOfFeatures(); k++) {
+                        Move move = new Move(placement.getCoordinates(), tile.getId(), placement.getRotation(),
+                                currentPlayer, k);
+                        boolean applied = board.applyMove(move, players);
+
+                        if (applied) {
+                            board.undoMove();
+                        }
+
+                        assertEquals(applied,
+                                board.canPlaceMeeple(placement, type, k, players.get(currentPlayer)), move.toString());
+                    }
+                }
+
+                RandomGames.playRandomMove(state, random);
+            }
+        }
+    }
+
+    // Plays a random game with applyMove, then undoes it move by move.
+    private void playAndUndoRandomGame(Random random) {
+        Board board = new Board(Settings.getStartingTile(), FeatureEngine.UNION_FIND);
+        ArrayList<Player> players = new ArrayList<>();
+        ArrayList<String> history = new ArrayList<>();
+        Stack<Tile> deck = Settings.getStandardDeck();
+        int currentPlayer = 0;
+
+        players.add(new Player(Colour.RED));
+        players.add(new Player(Colour.BLUE));
+        Collections.shuffle(deck, random);
+        history.add(describe(board, players));
+
+        while (!deck.empty()) {
+            String tileId = deck.pop().getId();
+            ArrayList<Move> moves = new ArrayList<>();
+
+            for (Coordinates c : board.getPossibleCoordinates()) {
+                for (int rotation = 0; rotation < 4; rotation++) {
+                    Tile tile = Settings.getTileFromId(tileId);
+                    tile.rotateClockwise(rotation);
+
+                    if (board.canPlaceJunkTile(c, tile)) {
+                        int featureIndex = random.nextInt(tile.getFeatures().size() + 1) - 1;
+                        moves.add(new Move(new Coordinates(c.getX(), c.getY()), tileId, rotation, currentPlayer,
+                                featureIndex));
+                    }
+                }
+            }
+
+            if (moves.isEmpty()) {
+                continue;
+            }
+
+            Move move = moves.get(random.nextInt(moves.size()));
+
+            if (!board.applyMove(move, players)) {
+                move.setFeatureIndex(-1);
+                assertTrue(board.applyMove(move, players));
+            }
+
+            history.add(describe(board, players));
+            currentPlayer = (currentPlayer + 1) % players.size();
+        }
+
+        for (int i = history.size() - 1; i > 0; i--) {
+            assertEquals(history.get(i), describe(board, players));
+            board.undoMove();
+        }
+
+        assertEquals(history.get(0), describe(board, players));
+        assertFalse(board.canUndo());
+    }
+
+    // Summarises everything a move can change on the board.
+    private String describe(Board board, ArrayList<Player> players) {
+        FeatureTracker tracker = board.getFeatureTracker();
+        StringBuilder description = new StringBuilder();
+
+        description.append(board.getPlacedTilesSize()).append(board.getPossibleCoordinates())
+                .append(board.getPastMoves().size()).append(board.getWidth()).append(board.getHeight())
+                .append(board.getMinX()).append(board.getMaxX()).append(board.getMinY()).append(board.getMaxY())
+                .append(tracker.getCount()).append(tracker.getNewlyClosed()).append(board.getHash());
+
+        for (int root : tracker.getOpenRoots()) {
+            description.append(root).append(tracker.getOpenSides(root)).append(tracker.getMeeples(root))
+                    .append(tracker.getSize(root)).append(tracker.getShields(root));
+        }
+
+        for (Player player : players) {
+            description.append(player.getScore()).append(player.getAvailableMeeples());
+        }
+
+        return description.toString();
+    }
+
+    // Plays the same random game on both engines and compares the scores.
+    private void playRandomGame(Random random) {
+        Board graphBoard = new Board(Settings.getStartingTile(), FeatureEngine.GRAPH);
+        Board trackedBoard = new Board(Settings.getStartingTile(), FeatureEngine.UNION_FIND);
+        ArrayList<Player> graphPlayers = new ArrayList<>();
+        ArrayList<Player> trackedPlayers = new ArrayList<>();
+        Stack<Tile> deck = Settings.getStandardDeck();
+        int currentPlayer = 0;
+
+        graphPlayers.add(new Player(Colour.RED));
+        graphPlayers.add(new Player(Colour.BLUE));
+        trackedPlayers.add(new Player(Colour.RED));
+        trackedPlayers.add(new Player(Colour.BLUE));
+        Collections.shuffle(deck, random);
+
+        while (!deck.empty()) {
+            String tileId = deck.pop().getId();
+            ArrayList<Coordinates> coordinates = new ArrayList<>();
+            ArrayList<Integer> rotations = new ArrayList<>();
+
+            for (Coordinates c : new ArrayList<>(graphBoard.getPossibleCoordinates())) {
+                for (int rotation = 0; rotation < 4; rotation++) {
+                    Tile tile = Settings.getTileFromId(tileId);
+                    tile.rotateClockwise(rotation);
+
+                    if (graphBoard.canPlaceJunkTile(c, tile)) {
+                        coordinates.add(c);
+                        rotations.add(rotation);
+                    }
+                }
+            }
+
+            if (coordinates.isEmpty()) {
+                continue;
+            }
+
+            int choice = random.nextInt(coordinates.size());
+            Tile graphTile = Settings.getTileFromId(tileId);
+            Tile trackedTile = Settings.getTileFromId(tileId);
+            graphTile.rotateClockwise(rotations.get(choice));
+            trackedTile.rotateClockwise(rotations.get(choice));
+
+            assertTrue(graphBoard.placeTile(new Coordinates(coordinates.get(choice).getX(),
+                    coordinates.get(choice).getY()), graphTile));
+            assertTrue(trackedBoard.placeTile(new Coordinates(coordinates.get(choice).getX(),
+                    coordinates.get(choice).getY()), trackedTile));
+
+            if (random.nextBoolean()) {
+                int featureIndex = random.nextInt(graphTile.getFeatures().size());
+
+                assertEquals(
+                        graphBoard.placeMeeple(graphTile.getFeatures().get(featureIndex),
+                                graphPlayers.get(currentPlayer)),
+                        trackedBoard.placeMeeple(trackedTile.getFeatures().get(featureIndex),
+                                trackedPlayers.get(currentPlayer)));
+            }
+
+            ScoreManager.scoreClosedFeatures(graphBoard, false);
+            ScoreManager.scoreClosedFeatures(trackedBoard, false);
+            assertScoresEqual(graphPlayers, trackedPlayers);
+
+            currentPlayer = (currentPlayer + 1) % graphPlayers.size();
+        }
+
+        ScoreManager.scoreOpenFeatures(graphBoard, false);
+        ScoreManager.scoreOpenFeatures(trackedBoard, false);
+        assertScoresEqual(graphPlayers, trackedPlayers);
+    }
+
+    private void assertScoresEqual(ArrayList<Player> graphPlayers, ArrayList<Player> trackedPlayers) {
+        for (int i = 0; i < graphPlayers.size(); i++) {
+            assertEquals(graphPlayers.get(i).getScore(), trackedPlayers.get(i).getScore());
+            assertEquals(graphPlayers.get(i).getAvailableMeeples(), trackedPlayers.get(i).getAvailableMeeples());
+        }
+    }
+}
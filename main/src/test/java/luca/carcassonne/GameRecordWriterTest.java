@@ -0,0 +1,95 @@
+package luca.carcassonne;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import luca.carcassonne.mcts.ActionStatistics;
+import luca.carcassonne.mcts.Move;
+import luca.carcassonne.player.Player;
+
+public class GameRecordWriterTest {
+
+    @Test
+    void testRecordsAreWrittenToRotatingFiles(@TempDir Path directory) throws IOException {
+        List<Game> games = new ArrayList<>();
+        GameRecordWriter writer = new GameRecordWriter(directory, 1);
+
+        for (int i = 0; i < 2; i++) {
+            Game game = new Game(new Board(Settings.getSingleCastleWithStraightRoad(), Settings.FEATURE_ENGINE),
+                    RandomManager.getGameSeed(i));
+
+            game.addListener(writer);
+            game.run();
+            games.add(game);
+        }
+
+        writer.close();
+
+        List<Path> files = Files.list(directory).sorted().collect(Collectors.toList());
+        List<GameRecord> records = new ArrayList<>();
+
+        assertEquals(2, writer.getFiles());
+        assertEquals(List.of("games-00000.bin.gz", "games-00001.bin.gz"),
+                files.stream().map(file -> file.getFileName().toString()).collect(Collectors.toList()));
+
+        for (Path file : files) {
+            records.addAll(GameRecord.readFile(file));
+        }
+
+        assertEquals(2, records.size());
+
+        for (int i = 0; i < 2; i++) {
+            Game game = games.get(i);
+            GameRecord record = records.get(i);
+
+            assertEquals(game.getSeed(), record.getSeed());
+            assertEquals(game.getBoard().getPastMoves(), record.getState().getBoard().getPastMoves());
+            assertEquals(game.getBoard().getHash(), record.getState().getBoard().getHash());
+
+            for (int j = 0; j < game.getNumberOfPlayers(); j++) {
+                assertEquals(game.getPlayers().get(j).getScore(), record.getState().getPlayers().get(j).getScore());
+            }
+        }
+
+        ActionStatistics actionStatistics = new ActionStatistics();
+        GameRecord record = records.get(0);
+        List<Move> moves = record.getState().getBoard().getPastMoves();
+        int maxScore = record.getState().getPlayers().stream().mapToInt(Player::getScore).max().getAsInt();
+
+        record.addActions(actionStatistics);
+
+        assertEquals(1, actionStatistics.getGames());
+        // Each action counted once, summing its counters
+        assertEquals(moves.size(), moves.stream().mapToInt(ActionStatistics::getIndex).distinct()
+                .mapToLong(actionStatistics::getPlayed).sum());
+        assertEquals(moves.stream()
+                .filter(move -> record.getState().getPlayers().get(move.getPlayerIndex()).getScore() == maxScore)
+                .count(), moves.stream().mapToInt(ActionStatistics::getIndex).distinct()
+                        .mapToLong(actionStatistics::getWon).sum());
+    }
+
+    @Test
+    void testDroppedRecordsAreReported(@TempDir Path directory) throws IOException {
+        GameRecordWriter writer = new GameRecordWriter(directory, 1);
+        Board board = new Board(Settings.getSingleCastleWithStraightRoad(), Settings.FEATURE_ENGINE);
+
+        Thread.currentThread().interrupt();
+        writer.add(0, board, new ArrayList<>());
+
+        assertTrue(Thread.interrupted());
+        assertThrows(InterruptedIOException.class, writer::close);
+        assertEquals(0, writer.getFiles());
+    }
+}
@@ -0,0 +1,75 @@
+package luca.carcassonne;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import luca.carcassonne.mcts.Move;
+import luca.carcassonne.player.Player;
+import luca.carcassonne.tile.Tile;
+import luca.carcassonne.tile.feature.Feature;
+
+public class GameTest {
+
+    @Test
+    void testHeadlessGamePrintsNothingAndReportsEveryTurn() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        PrintStream out = System.out;
+        Game game = new Game(new Board(Settings.getSingleCastleWithStraightRoad(), Settings.FEATURE_ENGINE), 1);
+        int[] events = new int[4];
+
+        System.setOut(new PrintStream(output));
+
+        try {
+            game.run();
+        } finally {
+            System.setOut(out);
+        }
+
+        assertEquals("", output.toString());
+
+        Game listenedGame = new Game(new Board(Settings.getSingleCastleWithStraightRoad(), Settings.FEATURE_ENGINE),
+                1);
+
+        listenedGame.addListener(new GameListener() {
+            @Override
+            public void turnStarted(Game game, Player player, Tile tile, int tilesLeft) {
+                events[0]++;
+            }
+
+            @Override
+            public void tileDiscarded(Game game, Player player, Tile tile) {
+                events[1]++;
+            }
+
+            @Override
+            public void movePlayed(Game game, Player player, Move move, long timeForMove) {
+                events[2]++;
+            }
+
+            @Override
+            public boolean wantsScores() {
+                return true;
+            }
+
+            @Override
+            public void featureScored(List<Player> owners, int score, Feature feature, int size, Tile tile) {
+                events[3] += score;
+            }
+        });
+        listenedGame.run();
+
+        int totalScore = listenedGame.getPlayers().stream().mapToInt(Player::getScore).sum();
+
+        assertEquals(Settings.getStandardDeck().size(), events[0]);
+        assertEquals(events[0], events[1] + events[2]);
+        assertEquals(events[2], listenedGame.getBoard().getPlacedTilesSize() - 1);
+        assertTrue(events[3] >= totalScore);
+        assertEquals(game.getPlayers().get(0).getScore(), listenedGame.getPlayers().get(0).getScore());
+    }
+}
@@ -0,0 +1,191 @@
+package luca.carcassonne;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.Stack;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import luca.carcassonne.mcts.MonteCarloTreeSearch;
+import luca.carcassonne.mcts.Move;
+import luca.carcassonne.mcts.Node;
+import luca.carcassonne.mcts.SearchParallelism;
+import luca.carcassonne.mcts.State;
+import luca.carcassonne.player.Colour;
+import luca.carcassonne.player.MonteCarloAgent;
+import luca.carcassonne.player.Player;
+import luca.carcassonne.tile.Tile;
+
+public class MonteCarloTreeSearchTest {
+
+    @Test
+    void testRootParallelSearchFindsLegalMove() {
+        MonteCarloAgent agent = new MonteCarloAgent(Colour.RED, 30, 0.5);
+        agent.setParallelism(SearchParallelism.ROOT, 4);
+
+        assertLegal(agent, newState());
+        assertEquals(SearchParallelism.ROOT, CloneManager.clone(agent).getParallelism());
+        assertEquals(4, CloneManager.clone(agent).getNumberOfThreads());
+    }
+
+    @Test
+    void testTreeParallelSearchCountsEveryIteration() {
+        State state = newState();
+        MonteCarloTreeSearch mcts = new MonteCarloTreeSearch(60, 0.5, state.getBoard(), 0, state.getCurrentTile(),
+                state.getPlayers(), state.getAvailableTiles());
+        mcts.setParallelism(SearchParallelism.TREE, 4);
+
+        Move move = mcts.findNextMove();
+
+        assertNotNull(move);
+        assertEquals(60, mcts.getStartingState().getVisitCount());
+        assertTrue(state.getBoard().applyMove(move, state.getPlayers()));
+    }
+
+    @Test
+    void testSharedPlayoutLeavesStatisticsAlone() {
+        State state = newState();
+        state.setFinalScoreDifference(1000);
+
+        state.simulatePlayout(RandomManager.get());
+
+        assertEquals(1000, state.getFinalScoreDifference());
+    }
+
+    @Test
+    void testLeafParallelSearchCountsEveryPlayout() {
+        State state = newState();
+        MonteCarloTreeSearch mcts = new MonteCarloTreeSearch(20, 0.5, state.getBoard(), 0, state.getCurrentTile(),
+                state.getPlayers(), state.getAvailableTiles());
+        mcts.setParallelism(SearchParallelism.LEAF, 4);
+
+        Move move = mcts.findNextMove();
+
+        assertNotNull(move);
+        assertEquals(20 * 4, mcts.getStartingState().getVisitCount());
+        assertTrue(state.getBoard().applyMove(move, state.getPlayers()));
+    }
+
+    @Test
+    void testTreeIsReusedAfterOpponentMoves() {
+        State state = newState();
+        Board board = state.getBoard();
+        Stack<Tile> deck = state.getAvailableTiles();
+        MonteCarloTreeSearch mcts = new MonteCarloTreeSearch(200, 0.5, board, 0, state.getCurrentTile(),
+                state.getPlayers(), deck);
+
+        Move move = mcts.findNextMove();
+        Node previousRoot = mcts.getRootNode();
+        Node reply = previousRoot.getChildren().stream()
+                .filter(child -> child.getState().getBoard().getLastMove() == move).findFirst().get()
+                .getChildWithMaxScore();
+
+        assertTrue(board.applyMove(move, state.getPlayers()));
+        deck.pop();
+        assertTrue(board.applyMove(reply.getState().getBoard().getLastMove(), state.getPlayers()));
+
+        MonteCarloTreeSearch nextMcts = new MonteCarloTreeSearch(200, 0.5, board, 0, deck.pop(),
+                state.getPlayers(), deck);
+
+        assertTrue(nextMcts.reuseTree(previousRoot));
+        assertSame(reply, nextMcts.getRootNode());
+        assertEquals(null, reply.getParent());
+        assertNotNull(nextMcts.findNextMove());
+    }
+
+    @Test
+    void testTimeBudgetStopsSearch() {
+        State state = newState();
+        MonteCarloTreeSearch mcts = new MonteCarloTreeSearch(0, 0.5, state.getBoard(), 0, state.getCurrentTile(),
+                state.getPlayers(), state.getAvailableTiles());
+        mcts.setTimeBudget(200);
+
+        long startTime = System.currentTimeMillis();
+        Move move = mcts.findNextMove();
+        long elapsedTime = System.currentTimeMillis() - startTime;
+
+        assertNotNull(move);
+        assertTrue(mcts.getStartingState().getVisitCount() > 0);
+        assertTrue(elapsedTime < 2000, "Search took " + elapsedTime + "ms");
+        assertTrue(state.getBoard().applyMove(move, state.getPlayers()));
+    }
+
+    @Test
+    void testLazyExpansionWidensProgressively() {
+        State state = newState();
+        MonteCarloTreeSearch mcts = new MonteCarloTreeSearch(50, 0.5, state.getBoard(), 0, state.getCurrentTile(),
+                state.getPlayers(), state.getAvailableTiles());
+        mcts.setLazyExpansion(true);
+        mcts.setProgressiveWidening(1, 0.5);
+
+        Move move = mcts.findNextMove();
+        Node rootNode = mcts.getRootNode();
+
+        assertNotNull(move);
+        assertEquals(50, rootNode.getState().getVisitCount());
+        assertTrue(rootNode.getChildren().size() <= Math.ceil(Math.sqrt(50)));
+        assertTrue(rootNode.getChildren().size() + rootNode.getUntriedMoves().size() <= state
+                .getPossibleMoves().size());
+        assertTrue(state.getBoard().applyMove(move, state.getPlayers()));
+    }
+
+    @Test
+    void testLazyExpansionOpensTheSameChildrenAsFullExpansion() {
+        State state = newState();
+        MonteCarloTreeSearch mcts = new MonteCarloTreeSearch(200, 0.5, state.getBoard(), 0, state.getCurrentTile(),
+                state.getPlayers(), state.getAvailableTiles());
+        mcts.setLazyExpansion(true);
+        // Opens every child of the root as soon as it is reached
+        mcts.setProgressiveWidening(1000, 0);
+
+        mcts.findNextMove();
+
+        Set<Long> childHashes = state.getAllPossibleChildStates().stream().map(State::getHash)
+                .collect(Collectors.toSet());
+
+        assertEquals(childHashes, mcts.getRootNode().getChildren().stream().map(child -> child.getState().getHash())
+                .collect(Collectors.toSet()));
+        assertEquals(childHashes.size(), mcts.getRootNode().getChildren().size());
+    }
+
+    @Test
+    void testPossibleMovesOfRotatedTileAreTheSame() {
+        State state = RandomGames.newState(20);
+        State rotated = RandomGames.newState(20);
+
+        rotated.getCurrentTile().rotateClockwise(3);
+
+        assertEquals(state.getPossibleMoves(), rotated.getPossibleMoves());
+
+        for (Move move : rotated.getPossibleMoves()) {
+            assertNotNull(rotated.createChildState(move), move.toString());
+        }
+    }
+
+    // Searches from the state and checks the move can be applied to it
+    private void assertLegal(MonteCarloAgent agent, State state) {
+        Move move = agent.getNextMove(state.getBoard(), 0, state.getCurrentTile(), state.getPlayers(),
+                state.getAvailableTiles());
+
+        assertNotNull(move);
+        assertEquals(state.getCurrentTile().getId(), move.getTileId());
+        assertTrue(state.getBoard().applyMove(move, state.getPlayers()));
+    }
+
+    private State newState() {
+        ArrayList<Player> players = new ArrayList<>();
+        Stack<Tile> deck = Settings.getStandardDeck();
+
+        players.add(new Player(Colour.RED));
+        players.add(new Player(Colour.BLUE));
+
+        return new State(new Board(Settings.getSingleCastleWithStraightRoad(), Settings.FEATURE_ENGINE), 0,
+                deck.pop(), players, deck);
+    }
+}
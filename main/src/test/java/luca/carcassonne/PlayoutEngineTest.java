@@ -0,0 +1,111 @@
+package luca.carcassonne;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Stack;
+
+import org.junit.jupiter.api.Test;
+
+import luca.carcassonne.mcts.Move;
+import luca.carcassonne.mcts.PlayoutEngine;
+import luca.carcassonne.mcts.State;
+import luca.carcassonne.player.Colour;
+import luca.carcassonne.player.Player;
+import luca.carcassonne.tile.Placement;
+import luca.carcassonne.tile.Tile;
+import luca.carcassonne.tile.TileType;
+
+class PlayoutEngineTest {
+
+    @Test
+    void testEngineScoresGamesLikeBoard() {
+        for (long seed = 0; seed < 10; seed++) {
+            Random random = new Random(seed);
+            Board board = new Board(Settings.getStartingTile(), FeatureEngine.UNION_FIND);
+            ArrayList<Player> players = newPlayers();
+            Stack<Tile> deck = Settings.getStandardDeck();
+            PlayoutEngine engine = new PlayoutEngine();
+            int currentPlayer = 0;
+
+            Collections.shuffle(deck, random);
+            engine.load(new State(board, 0, null, players, deck));
+
+            while (!deck.empty()) {
+                Tile tile = deck.pop();
+                List<Placement> placements = board.legalPlacements(tile);
+
+                assertEquals(placements.size(), engine.countPlacements(tile.getTypeId()));
+
+                if (placements.isEmpty()) {
+                    continue;
+                }
+
+                Placement placement = placements.get(random.nextInt(placements.size()));
+                int featureIndex = random.nextBoolean() ? random.nextInt(tile.getFeatures().size()) : -1;
+                Move move = new Move(placement.getCoordinates(), tile.getId(), placement.getRotation(),
+                        currentPlayer, featureIndex);
+                boolean meeplePlaced = featureIndex != -1 && board.applyMove(move, players);
+
+                if (!meeplePlaced) {
+                    move.setFeatureIndex(-1);
+                    assertTrue(board.applyMove(move, players));
+                }
+
+                assertEquals(meeplePlaced, engine.place(placement.getCoordinates().getX(),
+                        placement.getCoordinates().getY(), tile.getTypeId(), placement.getRotation(), featureIndex,
+                        currentPlayer));
+                assertSamePlayers(players, engine);
+
+                currentPlayer = (currentPlayer + 1) % players.size();
+            }
+
+            ScoreManager.scoreOpenFeatures(board, false);
+            engine.scoreOpenFeatures();
+
+            assertSamePlayers(players, engine);
+        }
+    }
+
+    @Test
+    void testPlayoutLeavesStateUntouched() {
+        State state = RandomGames.newState(FeatureEngine.UNION_FIND, 3, 30);
+        PlayoutEngine engine = new PlayoutEngine();
+        int placedTiles = state.getBoard().getPlacedTilesSize();
+        long hash = state.getHash();
+
+        RandomManager.setSeed(42);
+        engine.load(state);
+        engine.playOut(state.getCurrentPlayer());
+        int scoreDifference = engine.getScoreDifference(0);
+
+        RandomManager.setSeed(42);
+        engine.load(state);
+        engine.playOut(state.getCurrentPlayer());
+
+        assertEquals(scoreDifference, engine.getScoreDifference(0));
+        assertEquals(hash, state.getHash());
+        assertEquals(placedTiles, state.getBoard().getPlacedTilesSize());
+        assertEquals(TileType.get(state.getCurrentTile().getTypeId()).getName(), state.getCurrentTile().getId());
+    }
+
+    private void assertSamePlayers(ArrayList<Player> players, PlayoutEngine engine) {
+        for (int i = 0; i < players.size(); i++) {
+            assertEquals(players.get(i).getScore(), engine.getScore(i));
+            assertEquals(players.get(i).getAvailableMeeples(), engine.getAvailableMeeples(i));
+        }
+    }
+
+    private ArrayList<Player> newPlayers() {
+        ArrayList<Player> players = new ArrayList<>();
+
+        players.add(new Player(Colour.RED));
+        players.add(new Player(Colour.BLUE));
+
+        return players;
+    }
+}
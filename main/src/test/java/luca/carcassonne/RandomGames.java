@@ -0,0 +1,112 @@
+package luca.carcassonne;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Stack;
+
+import luca.carcassonne.mcts.Move;
+import luca.carcassonne.mcts.State;
+import luca.carcassonne.player.Colour;
+import luca.carcassonne.player.Player;
+import luca.carcassonne.tile.Placement;
+import luca.carcassonne.tile.Tile;
+import luca.carcassonne.tile.TileType;
+
+/**
+ * Builds game positions by playing random moves for the tests and, through
+ * the test jar, the benchmarks.
+ *
+ * The moves are drawn from the given {@code Random} rather than the
+ * {@code RandomManager}, so the same seed always gives the same position.
+ *
+ * @author Luca Brown
+ */
+public class RandomGames {
+    private static final long SEED = 0;
+
+    /**
+     * Returns a two player game on the default feature engine after the given
+     * number of random moves, with the next tile drawn.
+     *
+     * @param movesPlayed The number of tiles drawn before the current one.
+     * @return The state of the game.
+     */
+    public static State newState(int movesPlayed) {
+        return newState(Settings.FEATURE_ENGINE, SEED, movesPlayed);
+    }
+
+    /**
+     * Returns a two player game after the given number of random moves, with
+     * the next tile drawn. The player to move is also the original player of
+     * the state.
+     *
+     * @param featureEngine The feature engine of the board.
+     * @param seed          The seed of the deck's order and of the moves.
+     * @param movesPlayed   The number of tiles drawn before the current one.
+     * @return The state of the game.
+     */
+    public static State newState(FeatureEngine featureEngine, long seed, int movesPlayed) {
+        Random random = new Random(seed);
+        ArrayList<Player> players = new ArrayList<>();
+        Stack<Tile> deck = Settings.getStandardDeck();
+
+        players.add(new Player(Colour.RED));
+        players.add(new Player(Colour.BLUE));
+        Collections.shuffle(deck, random);
+
+        State state = new State(new Board(Settings.getStartingTile(), featureEngine), 0, deck.pop(), players, deck);
+
+        for (int i = 0; i < movesPlayed; i++) {
+            playRandomMove(state, random);
+        }
+
+        state.setOriginalPlayer(state.getCurrentPlayer());
+
+        return state;
+    }
+
+    /**
+     * Plays the state's current tile at a random legal placement, with a meeple
+     * on a random feature if one can go there, and draws the next tile. The
+     * turn then passes to the next player. A tile that can't be placed is
+     * discarded and the same player stays to move.
+     *
+     * @param state  The state, changed in place. Its current tile can't be null.
+     * @param random Where the choices are drawn from.
+     * @return The move played, or null if the tile was discarded.
+     */
+    public static Move playRandomMove(State state, Random random) {
+        Board board = state.getBoard();
+        Tile tile = state.getCurrentTile();
+        List<Placement> placements = board.legalPlacements(tile);
+
+        if (placements.isEmpty()) {
+            state.popNewTile();
+            return null;
+        }
+
+        TileType type = TileType.get(tile.getTypeId());
+        Placement placement = placements.get(random.nextInt(placements.size()));
+        int featureIndex = random.nextInt(type.getNumberOfFeatures() + 1) - 1;
+        int currentPlayer = state.getCurrentPlayer();
+        ArrayList<Player> players = state.getPlayers();
+
+        // Plays the tile without a meeple rather than not at all
+        if (featureIndex != -1 && !board.canPlaceMeeple(placement, type, featureIndex, players.get(currentPlayer))) {
+            featureIndex = -1;
+        }
+
+        Move move = new Move(placement.getCoordinates(), tile.getId(), placement.getRotation(), currentPlayer,
+                featureIndex);
+
+        if (!state.applyMove(move)) {
+            throw new IllegalStateException("Legal move could not be applied: " + move);
+        }
+
+        state.popNewTile();
+
+        return move;
+    }
+}
@@ -0,0 +1,69 @@
+package luca.carcassonne;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Stack;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import luca.carcassonne.mcts.MonteCarloTreeSearch;
+import luca.carcassonne.mcts.Move;
+import luca.carcassonne.mcts.SearchParallelism;
+import luca.carcassonne.mcts.State;
+import luca.carcassonne.player.Colour;
+import luca.carcassonne.player.Player;
+import luca.carcassonne.tile.Tile;
+
+public class RandomManagerTest {
+
+    @Test
+    void testGameSeedsAreFixedAndDistinct() {
+        assertEquals(RandomManager.getGameSeed(3), RandomManager.getGameSeed(3));
+        assertNotEquals(RandomManager.getGameSeed(3), RandomManager.getGameSeed(4));
+    }
+
+    @Test
+    void testSeededSearchesAreRepeatable() {
+        for (SearchParallelism parallelism : new SearchParallelism[] { SearchParallelism.NONE,
+                SearchParallelism.ROOT, SearchParallelism.LEAF }) {
+            assertEquals(search(parallelism, 7), search(parallelism, 7), parallelism.toString());
+        }
+    }
+
+    // The root's children and their visits after a search seeded with the given seed
+    private List<String> search(SearchParallelism parallelism, long seed) {
+        RandomManager.setSeed(seed);
+
+        ArrayList<Player> players = new ArrayList<>();
+        Stack<Tile> deck = Settings.getStandardDeck();
+
+        players.add(new Player(Colour.RED));
+        players.add(new Player(Colour.BLUE));
+        RandomManager.shuffle(deck);
+
+        State state = new State(new Board(Settings.getSingleCastleWithStraightRoad(), Settings.FEATURE_ENGINE), 0,
+                deck.pop(), players, deck);
+        MonteCarloTreeSearch mcts = new MonteCarloTreeSearch(30, 0.5, state.getBoard(), 0, state.getCurrentTile(),
+                state.getPlayers(), state.getAvailableTiles());
+
+        mcts.setParallelism(parallelism, 4);
+
+        Move move = mcts.findNextMove();
+        List<String> result = new ArrayList<>();
+
+        result.add(move.toString());
+
+        if (parallelism != SearchParallelism.ROOT) {
+            result.addAll(mcts.getRootNode().getChildren().stream()
+                    .map(child -> child.getState().getBoard().getLastMove() + " " + child.getState().getVisitCount()
+                            + " " + child.getState().getFinalScoreDifference())
+                    .collect(Collectors.toList()));
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,51 @@
+package luca.carcassonne;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import luca.carcassonne.tile.Coordinates;
+
+public class SlotIndexTest {
+
+    @Test
+    void testIndexMatchesHashMap() {
+        Random random = new Random(0);
+        SlotIndex index = new SlotIndex();
+        HashMap<Coordinates, Integer> map = new HashMap<>();
+        List<Coordinates> added = new ArrayList<>();
+
+        // Enough slots to grow the table, removed in any order like frontier slots
+        for (int i = 0; i < 5000; i++) {
+            if (added.isEmpty() || random.nextInt(3) > 0) {
+                Coordinates coordinates = new Coordinates(random.nextInt(81) - 40, random.nextInt(81) - 40);
+
+                if (!map.containsKey(coordinates)) {
+                    added.add(coordinates);
+                }
+
+                index.put(coordinates, i);
+                map.put(coordinates, i);
+            } else {
+                Coordinates coordinates = added.remove(random.nextInt(added.size()));
+
+                assertEquals((int) map.remove(coordinates), index.remove(coordinates));
+            }
+
+            assertEquals(map.size(), index.size());
+        }
+
+        for (int x = -41; x <= 41; x++) {
+            for (int y = -41; y <= 41; y++) {
+                assertEquals((int) map.getOrDefault(new Coordinates(x, y), -1), index.get(new Coordinates(x, y)));
+            }
+        }
+
+        assertEquals(-1, index.remove(new Coordinates(100, 100)));
+    }
+}
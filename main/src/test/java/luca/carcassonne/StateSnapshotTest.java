@@ -0,0 +1,98 @@
+package luca.carcassonne;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+import java.util.Stack;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import luca.carcassonne.mcts.State;
+import luca.carcassonne.player.Player;
+import luca.carcassonne.tile.Tile;
+
+public class StateSnapshotTest {
+
+    @Test
+    void testDecodedStatesPlayOnLikeTheOriginal() {
+        for (FeatureEngine featureEngine : FeatureEngine.values()) {
+            for (long seed = 0; seed < 5; seed++) {
+                State state = RandomGames.newState(featureEngine, seed, 40);
+                State copy = StateSnapshot.decode(StateSnapshot.encode(state));
+
+                assertSameState(state, copy);
+
+                // Both boards keep the same features and scores for the rest of the game
+                Random random = new Random(seed);
+
+                while (state.getCurrentTile() != null) {
+                    long moveSeed = random.nextLong();
+
+                    RandomGames.playRandomMove(state, new Random(moveSeed));
+                    RandomGames.playRandomMove(copy, new Random(moveSeed));
+                }
+
+                ScoreManager.scoreOpenFeatures(state.getBoard(), false);
+                ScoreManager.scoreOpenFeatures(copy.getBoard(), false);
+
+                assertSameState(state, copy);
+            }
+        }
+    }
+
+    @Test
+    void testSnapshotIsCompactAndVersioned() {
+        State state = RandomGames.newState(FeatureEngine.UNION_FIND, 1, 70);
+        byte[] snapshot = StateSnapshot.encode(state);
+
+        assertTrue(snapshot.length < 600, "Snapshot of " + snapshot.length + " bytes");
+        assertEquals(state.getHash(), CloneManager.clone(state).getHash());
+
+        snapshot[0] = (byte) (StateSnapshot.VERSION + 1);
+
+        assertThrows(IllegalArgumentException.class, () -> StateSnapshot.decode(snapshot));
+    }
+
+    @Test
+    void testHashIsKeptUpToDate() {
+        State state = RandomGames.newState(FeatureEngine.UNION_FIND, 2, 0);
+        Random random = new Random(2);
+
+        // Decoding computes the hash from scratch
+        while (state.getCurrentTile() != null) {
+            State child = state.createChildState(state.getPossibleMoves().get(0));
+
+            assertEquals(StateSnapshot.decode(StateSnapshot.encode(child)).getHash(), child.getHash());
+
+            RandomGames.playRandomMove(state, random);
+
+            assertEquals(StateSnapshot.decode(StateSnapshot.encode(state)).getHash(), state.getHash());
+        }
+    }
+
+    private void assertSameState(State state, State copy) {
+        assertEquals(state.getHash(), copy.getHash());
+        assertEquals(state.getCurrentPlayer(), copy.getCurrentPlayer());
+        assertEquals(state.getOriginalPlayer(), copy.getOriginalPlayer());
+        assertEquals(state.getBoard().getPastMoves(), copy.getBoard().getPastMoves());
+        assertEquals(state.getBoard().getPlacedTilesSize(), copy.getBoard().getPlacedTilesSize());
+        assertEquals(typeIds(state.getAvailableTiles()), typeIds(copy.getAvailableTiles()));
+
+        for (int i = 0; i < state.getPlayers().size(); i++) {
+            Player player = state.getPlayers().get(i);
+            Player playerCopy = copy.getPlayers().get(i);
+
+            assertEquals(player.getColour(), playerCopy.getColour());
+            assertEquals(player.getScore(), playerCopy.getScore());
+            assertEquals(player.getAvailableMeeples(), playerCopy.getAvailableMeeples());
+        }
+    }
+
+    private List<Integer> typeIds(Stack<Tile> tiles) {
+        return tiles.stream().map(Tile::getTypeId).collect(Collectors.toList());
+    }
+}
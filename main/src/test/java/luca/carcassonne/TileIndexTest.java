@@ -0,0 +1,53 @@
+package luca.carcassonne;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import luca.carcassonne.tile.Coordinates;
+import luca.carcassonne.tile.Tile;
+
+public class TileIndexTest {
+
+    @Test
+    void testIndexMatchesHashMap() {
+        Random random = new Random(0);
+        TileIndex index = new TileIndex();
+        HashMap<Coordinates, Tile> map = new HashMap<>();
+        List<Coordinates> placed = new ArrayList<>();
+
+        // Enough tiles to grow the table, removed in any order like undone moves
+        for (int i = 0; i < 5000; i++) {
+            if (placed.isEmpty() || random.nextInt(3) > 0) {
+                Coordinates coordinates = new Coordinates(random.nextInt(81) - 40, random.nextInt(81) - 40);
+                Tile tile = Settings.getSingleCastleWithStraightRoad();
+
+                if (!map.containsKey(coordinates)) {
+                    placed.add(coordinates);
+                }
+
+                index.put(coordinates, tile);
+                map.put(coordinates, tile);
+            } else {
+                Coordinates coordinates = placed.remove(random.nextInt(placed.size()));
+
+                index.remove(coordinates);
+                map.remove(coordinates);
+            }
+
+            assertEquals(map.size(), index.size());
+        }
+
+        for (int x = -41; x <= 41; x++) {
+            for (int y = -41; y <= 41; y++) {
+                assertSame(map.get(new Coordinates(x, y)), index.get(x, y));
+            }
+        }
+    }
+}
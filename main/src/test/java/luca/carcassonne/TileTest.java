@@ -4,9 +4,14 @@ import org.junit.jupiter.api.Test;
 
 import luca.carcassonne.tile.CardinalPoint;
 import luca.carcassonne.tile.Tile;
+import luca.carcassonne.tile.TileType;
+import luca.carcassonne.tile.feature.Castle;
 import luca.carcassonne.tile.feature.Feature;
+import luca.carcassonne.tile.feature.Field;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Stack;
 import java.util.stream.Collectors;
@@ -69,4 +74,64 @@ class TileTest {
         }
     }
 
+    @Test
+    void testCatalogTilesMatchRotatedDefinitions() {
+        for (int typeId = 0; typeId < TileType.getNumberOfTypes(); typeId++) {
+            TileType type = TileType.get(typeId);
+
+            assertSame(type, TileType.get(type.getName()));
+
+            for (int rotation = 0; rotation < 4; rotation++) {
+                Tile expected = Settings.getTileDefinition(type.getName());
+                Tile tile = type.createTile(rotation);
+
+                expected.rotateClockwise(rotation);
+
+                assertEquals(typeId, tile.getTypeId());
+                assertEquals(typeId, expected.getTypeId());
+                assertEquals(rotation, tile.getRotation());
+                assertEquals(expected.getId(), tile.getId());
+                assertEquals(expected.getSideFeatures(), tile.getSideFeatures());
+                assertEquals(expected.getFeatures().size(), tile.getFeatures().size());
+
+                for (int i = 0; i < tile.getFeatures().size(); i++) {
+                    Feature expectedFeature = expected.getFeatures().get(i);
+                    Feature feature = tile.getFeatures().get(i);
+
+                    assertEquals(expectedFeature.getClass(), feature.getClass());
+                    assertEquals(expectedFeature.getCardinalPoints(), feature.getCardinalPoints());
+
+                    if (feature instanceof Castle) {
+                        assertEquals(((Castle) expectedFeature).hasShield(), ((Castle) feature).hasShield());
+                    } else if (feature instanceof Field) {
+                        ArrayList<Castle> expectedCastles = ((Field) expectedFeature).getAdjacentCastles();
+                        ArrayList<Castle> castles = ((Field) feature).getAdjacentCastles();
+
+                        assertEquals(expectedCastles.size(), castles.size());
+
+                        for (int j = 0; j < castles.size(); j++) {
+                            assertEquals(expected.getFeatures().indexOf(expectedCastles.get(j)),
+                                    tile.getFeatures().indexOf(castles.get(j)));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testCardinalPointMasks() {
+        int mask = CardinalPoint.mask(CardinalPoint.N, CardinalPoint.NNE, CardinalPoint.WNW);
+
+        assertEquals(CardinalPoint.mask(CardinalPoint.E, CardinalPoint.ESE, CardinalPoint.NNE),
+                CardinalPoint.rotateClockwise(mask));
+        assertEquals(mask, CardinalPoint.rotateClockwise(CardinalPoint.rotateClockwise(
+                CardinalPoint.rotateClockwise(CardinalPoint.rotateClockwise(mask)))));
+        assertEquals(CardinalPoint.mask(CardinalPoint.S, CardinalPoint.SSE, CardinalPoint.ENE),
+                CardinalPoint.getFacing(mask));
+        assertEquals(CardinalPoint.mask(CardinalPoint.N, CardinalPoint.NNE),
+                mask & CardinalPoint.getEdgeMask(0));
+        assertEquals(3, CardinalPoint.fromMask(mask).size());
+        assertEquals(mask, CardinalPoint.mask(CardinalPoint.fromMask(mask)));
+    }
 }
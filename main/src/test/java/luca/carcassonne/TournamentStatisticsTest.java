@@ -0,0 +1,84 @@
+package luca.carcassonne;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import luca.carcassonne.player.Colour;
+import luca.carcassonne.player.Player;
+
+public class TournamentStatisticsTest {
+
+    @Test
+    void testMergedStatisticsMatchSingleStream() {
+        RunningStatistics all = new RunningStatistics(-50, 10, 10);
+        RunningStatistics first = new RunningStatistics(-50, 10, 10);
+        RunningStatistics second = new RunningStatistics(-50, 10, 10);
+
+        for (int value = -70; value < 70; value += 3) {
+            all.add(value);
+            (value < 10 ? first : second).add(value);
+        }
+
+        first.merge(second);
+
+        assertEquals(all.getCount(), first.getCount());
+        assertEquals(all.getMean(), first.getMean(), 1e-9);
+        assertEquals(all.getVariance(), first.getVariance(), 1e-9);
+        assertEquals(-70, first.getMin());
+        assertEquals(68, first.getMax());
+        assertArrayEquals(all.getHistogram(), first.getHistogram());
+        assertEquals(10, all.getHistogram()[0]);
+        assertEquals(0, all.getBin(-200));
+        assertEquals(9, all.getBin(200));
+    }
+
+    @Test
+    void testResultsFromManyThreadsAreAllCounted() throws InterruptedException {
+        TournamentStatistics statistics = new TournamentStatistics(2);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+
+        for (int i = 0; i < 400; i++) {
+            int game = i;
+
+            // The first seat wins a third of the games and ties another third
+            pool.execute(() -> statistics.addResult(newPlayers(50 + game % 3, 51)));
+        }
+
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.MINUTES);
+
+        RunningStatistics scoreDelta = statistics.getScoreDeltaStatistics();
+
+        assertEquals(400, statistics.getGames());
+        assertEquals(133, statistics.getWins(0));
+        assertEquals(134, statistics.getWins(1));
+        assertEquals(133, statistics.getTies(0));
+        assertEquals(133, statistics.getTies(1));
+        assertEquals(51, statistics.getAverageScore(1));
+        assertEquals(400, scoreDelta.getCount());
+        assertEquals(-1, scoreDelta.getMin());
+        assertEquals(1, scoreDelta.getMax());
+        assertEquals(-1.0 / 400, scoreDelta.getMean(), 1e-9);
+        assertEquals(50, statistics.getScoreStatistics(0).getMin());
+        assertEquals(52, statistics.getScoreStatistics(0).getMax());
+    }
+
+    private List<Player> newPlayers(int firstScore, int secondScore) {
+        List<Player> players = new ArrayList<>();
+
+        players.add(new Player(Colour.RED));
+        players.add(new Player(Colour.BLUE));
+        players.get(0).addScore(firstScore);
+        players.get(1).addScore(secondScore);
+
+        return players;
+    }
+}
@@ -0,0 +1,117 @@
+package luca.carcassonne;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Stack;
+
+import org.junit.jupiter.api.Test;
+
+import luca.carcassonne.mcts.Move;
+import luca.carcassonne.mcts.NodeStatistics;
+import luca.carcassonne.mcts.State;
+import luca.carcassonne.mcts.TranspositionTable;
+import luca.carcassonne.player.Colour;
+import luca.carcassonne.player.MonteCarloAgent;
+import luca.carcassonne.player.Player;
+import luca.carcassonne.tile.Tile;
+
+public class TranspositionTableTest {
+
+    @Test
+    void testEqualStatesShareStatistics() {
+        TranspositionTable table = new TranspositionTable(16);
+        State state = newState();
+        State equalState = CloneManager.clone(state);
+
+        NodeStatistics statistics = table.get(state);
+
+        assertSame(statistics, table.get(equalState));
+        assertEquals(1, table.size());
+
+        equalState.setCurrentPlayer(1);
+
+        assertNotSame(statistics, table.get(equalState));
+        assertEquals(2, table.size());
+    }
+
+    @Test
+    void testLeastRecentlyUsedStateIsEvicted() {
+        TranspositionTable table = new TranspositionTable(2);
+        State first = newState();
+        State second = newState();
+        State third = newState();
+        second.setCurrentPlayer(1);
+        third.popNewTile();
+
+        NodeStatistics firstStatistics = table.get(first);
+        NodeStatistics secondStatistics = table.get(second);
+
+        table.get(first);
+        table.get(third);
+
+        assertEquals(2, table.size());
+        assertSame(firstStatistics, table.get(first));
+        assertNotSame(secondStatistics, table.get(second));
+    }
+
+    @Test
+    void testConcurrentLookupsShareStatistics() throws InterruptedException {
+        TranspositionTable table = new TranspositionTable(1000);
+        List<State> states = newState().getAllPossibleChildStates();
+        NodeStatistics[][] statistics = new NodeStatistics[4][states.size()];
+        Thread[] threads = new Thread[statistics.length];
+
+        for (int t = 0; t < threads.length; t++) {
+            int thread = t;
+
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < states.size(); i++) {
+                    statistics[thread][i] = table.get(CloneManager.clone(states.get(i)));
+                }
+            });
+            threads[t].start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        for (int i = 0; i < states.size(); i++) {
+            for (int t = 1; t < threads.length; t++) {
+                assertSame(statistics[0][i], statistics[t][i]);
+            }
+        }
+
+        assertEquals(states.size(), table.size());
+    }
+
+    @Test
+    void testAgentWithTranspositionTableFindsMove() {
+        MonteCarloAgent agent = new MonteCarloAgent(Colour.RED, 50, 0.5, 1000);
+        State state = newState();
+
+        Move move = agent.getNextMove(state.getBoard(), 0, state.getCurrentTile(), state.getPlayers(),
+                state.getAvailableTiles());
+
+        assertNotNull(move);
+        assertTrue(agent.getTranspositionTable().size() > 0);
+        assertTrue(agent.getTranspositionTable().size() <= 1000);
+    }
+
+    private State newState() {
+        ArrayList<Player> players = new ArrayList<>();
+        Stack<Tile> deck = Settings.getStandardDeck();
+
+        players.add(new Player(Colour.RED));
+        players.add(new Player(Colour.BLUE));
+
+        return new State(new Board(Settings.getSingleCastleWithStraightRoad(), Settings.FEATURE_ENGINE), 0,
+                deck.pop(), players, deck);
+    }
+}